@@ -0,0 +1,30 @@
+package com.alten.producttrial.catalog;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Convertisseur JPA du libellé de catégorie d'un produit vers sa clé dans {@link CategoryDictionary},
+ * instancié par Hibernate via le conteneur Spring. S'applique aussi aux paramètres des requêtes :
+ * un filtre sur le libellé est exécuté comme une égalité sur {@code category_id}. La traduction ne crée
+ * jamais de catégorie ; celle d'un produit écrit l'a été par {@link ProductCategoryListener}.
+ */
+@Converter
+public class CategoryConverter implements AttributeConverter<String, Integer> {
+    
+    private final CategoryDictionary categoryDictionary;
+    
+    public CategoryConverter(CategoryDictionary categoryDictionary) {
+        this.categoryDictionary = categoryDictionary;
+    }
+    
+    @Override
+    public Integer convertToDatabaseColumn(String category) {
+        return category == null ? null : categoryDictionary.idOf(category);
+    }
+    
+    @Override
+    public String convertToEntityAttribute(Integer categoryId) {
+        return categoryId == null ? null : categoryDictionary.nameOf(categoryId);
+    }
+}
@@ -0,0 +1,190 @@
+package com.alten.producttrial.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+/**
+ * Dictionnaire en mémoire des catégories (table {@code categories}) : libellé ↔ petite clé entière.
+ *
+ * Les produits ne stockent que la clé ({@code products.category_id}), traduite par {@link CategoryConverter}.
+ * Le dictionnaire est chargé au démarrage puis rechargé dès qu'une clé ou un libellé y est absent (catégorie
+ * créée par une autre instance). Seule l'écriture d'un produit crée une catégorie ({@link #getOrCreate(String)}),
+ * dans la transaction de l'écriture : la nouvelle clé n'est visible que de cette transaction jusqu'à son commit,
+ * et disparaît avec elle en cas de rollback.
+ */
+@Slf4j
+@Component
+public class CategoryDictionary {
+    
+    /**
+     * Clé renvoyée pour un libellé inconnu : les clés générées commencent à 1, aucun produit ne la référence.
+     */
+    public static final int UNKNOWN_ID = -1;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private volatile Entries entries = new Entries(Map.of());
+    
+    public CategoryDictionary(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+        log.info("Dictionnaire des catégories chargé - {} catégories", entries.names.size());
+    }
+    
+    /**
+     * Clé de la catégorie, sans jamais la créer : un libellé inconnu (filtre d'une requête par exemple)
+     * donne {@link #UNKNOWN_ID}.
+     */
+    public Integer idOf(String name) {
+        Integer id = entries().ids.get(name);
+        if (id == null) {
+            id = reload().ids.get(name);
+        }
+        return id != null ? id : UNKNOWN_ID;
+    }
+    
+    /**
+     * Clé de la catégorie, créée dans la transaction courante si le libellé est inconnu.
+     * Réservé aux écritures de produits.
+     */
+    public Integer getOrCreate(String name) {
+        Integer id = idOf(name);
+        if (id != UNKNOWN_ID) {
+            return id;
+        }
+        // Même connexion et même transaction que l'écriture du produit
+        jdbcTemplate.update("MERGE INTO categories c USING (SELECT CAST(? AS VARCHAR(255)) AS name) s "
+                + "ON c.name = s.name WHEN NOT MATCHED THEN INSERT (name) VALUES (s.name)", name);
+        id = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = ?", Integer.class, name);
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingOrBind().put(id, name);
+        } else {
+            publish(Map.of(id, name));
+        }
+        log.info("Nouvelle catégorie - ID: {}, nom: {}", id, name);
+        return id;
+    }
+    
+    public String nameOf(Integer id) {
+        String name = entries().names.get(id);
+        if (name == null) {
+            name = reload().names.get(id);
+        }
+        if (name == null) {
+            throw new IllegalStateException("Unknown category id: " + id);
+        }
+        return name;
+    }
+    
+    /**
+     * Libellés correspondant, sans tenir compte de la casse, à la catégorie demandée.
+     *
+     * @return les libellés connus, vide si aucune catégorie ne correspond
+     */
+    public List<String> findMatching(String category) {
+        return entries().byLowerName.getOrDefault(category.toLowerCase(Locale.ROOT), List.of());
+    }
+    
+    /**
+     * Libellés de toutes les catégories connues, triés sans tenir compte de la casse.
+     */
+    public List<String> names() {
+        return entries().sortedNames;
+    }
+    
+    // Catégories validées, plus celles que la transaction courante a créées
+    private Entries entries() {
+        Map<Integer, String> pending = pending();
+        if (pending == null || pending.isEmpty()) {
+            return entries;
+        }
+        Map<Integer, String> names = new HashMap<>(entries.names);
+        names.putAll(pending);
+        return new Entries(names);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<Integer, String> pending() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                ? (Map<Integer, String>) TransactionSynchronizationManager.getResource(this)
+                : null;
+    }
+    
+    private Map<Integer, String> pendingOrBind() {
+        Map<Integer, String> pending = pending();
+        if (pending == null) {
+            Map<Integer, String> created = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(created);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CategoryDictionary.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+    
+    private synchronized void publish(Map<Integer, String> created) {
+        Map<Integer, String> names = new HashMap<>(entries.names);
+        names.putAll(created);
+        entries = new Entries(names);
+    }
+    
+    // Les catégories encore non validées de la transaction courante ne sont pas publiées
+    private synchronized Entries reload() {
+        Map<Integer, String> pending = pending();
+        Map<Integer, String> names = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM categories", rs -> {
+            int id = rs.getInt("id");
+            if (pending == null || !pending.containsKey(id)) {
+                names.put(id, rs.getString("name"));
+            }
+        });
+        entries = new Entries(names);
+        return entries();
+    }
+    
+    // Instantané immuable, remplacé en bloc à chaque rechargement
+    private static final class Entries {
+        
+        private final Map<Integer, String> names;
+        private final Map<String, Integer> ids;
+        private final Map<String, List<String>> byLowerName;
+        private final List<String> sortedNames;
+        
+        private Entries(Map<Integer, String> names) {
+            Map<String, Integer> ids = new HashMap<>();
+            Map<String, List<String>> byLowerName = new HashMap<>();
+            names.forEach((id, name) -> {
+                ids.put(name, id);
+                byLowerName.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> new ArrayList<>()).add(name);
+            });
+            byLowerName.replaceAll((key, values) -> List.copyOf(values));
+            
+            this.names = Map.copyOf(names);
+            this.ids = Map.copyOf(ids);
+            this.byLowerName = Map.copyOf(byLowerName);
+            this.sortedNames = names.values().stream().sorted(String.CASE_INSENSITIVE_ORDER).toList();
+        }
+    }
+}
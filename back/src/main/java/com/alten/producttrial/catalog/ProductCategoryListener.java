@@ -0,0 +1,26 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.model.Product;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Listener JPA de l'entité {@link Product}, instancié par Hibernate via le conteneur Spring.
+ * Crée la catégorie d'un produit écrit avant que {@link CategoryConverter} ne la traduise en clé.
+ */
+public class ProductCategoryListener {
+    
+    private final CategoryDictionary categoryDictionary;
+    
+    public ProductCategoryListener(CategoryDictionary categoryDictionary) {
+        this.categoryDictionary = categoryDictionary;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    void onWrite(Product product) {
+        if (product.getCategory() != null) {
+            categoryDictionary.getOrCreate(product.getCategory());
+        }
+    }
+}
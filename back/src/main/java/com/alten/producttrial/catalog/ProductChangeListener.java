@@ -0,0 +1,31 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Listener JPA de l'entité {@link Product}, instancié par Hibernate via le conteneur Spring.
+ * Traduit les callbacks de cycle de vie en {@link ProductChangedEvent}.
+ */
+public class ProductChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public ProductChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    void onSave(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, product));
+    }
+    
+    @PostRemove
+    void onRemove(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.DELETED, product));
+    }
+}
@@ -0,0 +1,25 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié à chaque écriture JPA sur un produit (création, modification, suppression).
+ * Les structures en mémoire du catalogue s'y abonnent pour rester à jour.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    
+    public enum Type {
+        SAVED, DELETED
+    }
+    
+    private final Type type;
+    private final Product product;
+    
+    public Long getProductId() {
+        return product.getId();
+    }
+}
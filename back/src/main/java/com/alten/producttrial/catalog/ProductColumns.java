@@ -0,0 +1,513 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.model.Product;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Instantané immuable du catalogue en colonnes : un tableau par attribut, une ligne par version de produit,
+ * et pour chaque champ de tri une permutation des lignes vivantes triée par (clé, id).
+ *
+ * Les colonnes ne sont écrites qu'en ajout, au-delà du nombre de lignes des instantanés déjà publiés : une
+ * modification produit une nouvelle ligne et retire l'ancienne des permutations, qui sont recopiées. Les
+ * lignes mortes sont compactées lorsqu'elles deviennent plus nombreuses que les lignes vivantes.
+ *
+ * Chaque permutation a son inverse, le rang de chaque ligne : un ensemble de lignes se remet dans l'ordre
+ * d'un champ en marquant leurs rangs, sans tri.
+ */
+final class ProductColumns {
+    
+    // En deçà, les lignes mortes ne justifient pas une reconstruction complète
+    private static final int MIN_COMPACTION = 1024;
+    private static final Product.InventoryStatus[] STATUSES = Product.InventoryStatus.values();
+    
+    enum SortField {
+        ID("id"), CODE("code"), NAME("name"), PRICE("price"), QUANTITY("quantity"), RATING("rating");
+        
+        private final String property;
+        
+        SortField(String property) {
+            this.property = property;
+        }
+        
+        /**
+         * @return le champ de tri de l'attribut, ou null s'il n'a pas de permutation
+         */
+        static SortField of(String property) {
+            for (SortField field : values()) {
+                if (field.property.equals(property)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+    
+    private final Storage storage;
+    private final int rowCount;
+    private final int[][] permutations;
+    // Position de chaque ligne vivante dans chaque permutation, indéfinie pour les lignes mortes
+    private final int[][] ranks;
+    // Nombre de produits par clé de catégorie
+    private final int[] categoryCounts;
+    
+    private ProductColumns(Storage storage, int rowCount, int[][] permutations, int[] categoryCounts) {
+        this.storage = storage;
+        this.rowCount = rowCount;
+        this.permutations = permutations;
+        this.categoryCounts = categoryCounts;
+        this.ranks = new int[permutations.length][];
+        for (int field = 0; field < permutations.length; field++) {
+            int[] permutation = permutations[field];
+            int[] rank = new int[rowCount];
+            for (int i = 0; i < permutation.length; i++) {
+                rank[permutation[i]] = i;
+            }
+            ranks[field] = rank;
+        }
+    }
+    
+    static ProductColumns build(List<Row> rows) {
+        Storage storage = new Storage(Math.max(rows.size(), 16));
+        for (int i = 0; i < rows.size(); i++) {
+            storage.write(i, rows.get(i));
+        }
+        int[][] permutations = new int[SortField.values().length][];
+        for (SortField field : SortField.values()) {
+            permutations[field.ordinal()] = sort(storage, field, IntStream.range(0, rows.size()));
+        }
+        int[] categoryCounts = new int[0];
+        for (Row row : rows) {
+            categoryCounts = withCapacity(categoryCounts, row.categoryId);
+            categoryCounts[row.categoryId]++;
+        }
+        return new ProductColumns(storage, rows.size(), permutations, categoryCounts);
+    }
+    
+    /**
+     * Applique les écritures d'une transaction.
+     *
+     * @param changes nouvel état de chaque produit modifié, null pour un produit supprimé
+     */
+    ProductColumns apply(Map<Long, Row> changes) {
+        BitSet removed = new BitSet(rowCount);
+        List<Row> added = new ArrayList<>();
+        changes.forEach((id, row) -> {
+            int current = rowOf(id);
+            if (current >= 0) {
+                removed.set(current);
+            }
+            if (row != null) {
+                added.add(row);
+            }
+        });
+        
+        int live = size() - removed.cardinality() + added.size();
+        int total = rowCount + added.size();
+        if (total - live > Math.max(live, MIN_COMPACTION)) {
+            return compact(removed, added);
+        }
+        
+        Storage target = storage.ensureCapacity(rowCount, total);
+        int[] counts = categoryCounts.clone();
+        removed.stream().forEach(row -> counts[storage.categoryIds[row]]--);
+        for (int i = 0; i < added.size(); i++) {
+            target.write(rowCount + i, added.get(i));
+        }
+        int[] updatedCounts = counts;
+        for (Row row : added) {
+            updatedCounts = withCapacity(updatedCounts, row.categoryId);
+            updatedCounts[row.categoryId]++;
+        }
+        int[][] merged = new int[permutations.length][];
+        for (SortField field : SortField.values()) {
+            int[] addedRows = sort(target, field, IntStream.range(rowCount, total));
+            merged[field.ordinal()] = merge(target, field, permutations[field.ordinal()], removed, addedRows);
+        }
+        return new ProductColumns(target, total, merged, updatedCounts);
+    }
+    
+    private ProductColumns compact(BitSet removed, List<Row> added) {
+        List<Row> rows = new ArrayList<>(size() + added.size());
+        for (int row : permutations[SortField.ID.ordinal()]) {
+            if (!removed.get(row)) {
+                rows.add(storage.read(row));
+            }
+        }
+        rows.addAll(added);
+        return build(rows);
+    }
+    
+    /**
+     * Nombre de produits de l'instantané.
+     */
+    int size() {
+        return permutations[SortField.ID.ordinal()].length;
+    }
+    
+    /**
+     * Nombre de produits de la catégorie.
+     */
+    int countOf(int categoryId) {
+        return categoryId < categoryCounts.length ? categoryCounts[categoryId] : 0;
+    }
+    
+    /**
+     * Lignes vivantes triées par (clé, id) croissants ; à parcourir à l'envers pour un tri décroissant.
+     */
+    int[] permutation(SortField field) {
+        return permutations[field.ordinal()];
+    }
+    
+    /**
+     * Position d'une ligne vivante dans la permutation croissante du champ.
+     */
+    int rank(SortField field, int row) {
+        return ranks[field.ordinal()][row];
+    }
+    
+    /**
+     * Positions [from, to) dans la permutation croissante d'un champ numérique des lignes dont la clé est
+     * comprise entre {@code min} et {@code max} inclus ; une borne null n'est pas appliquée. Pour la note,
+     * une borne exclut les produits sans note.
+     *
+     * @return {from, to}
+     */
+    int[] range(SortField field, Double min, Double max) {
+        int from = min == null ? 0 : position(field, min, Long.MIN_VALUE, true);
+        if (min == null && field == SortField.RATING) {
+            // Les notes absentes occupent le début de la permutation
+            from = position(field, Double.NEGATIVE_INFINITY, Long.MIN_VALUE, true);
+        }
+        int to = max == null ? size() : position(field, max, Long.MAX_VALUE, false);
+        return new int[] {from, Math.max(from, to)};
+    }
+    
+    /**
+     * @return la ligne du produit, ou -1 s'il est absent de l'instantané
+     */
+    int rowOf(long id) {
+        int[] byId = permutations[SortField.ID.ordinal()];
+        int low = 0;
+        int high = byId.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = storage.ids[byId[mid]];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return byId[mid];
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Position, dans la permutation croissante, de la première ligne strictement après (key, id)
+     * si {@code inclusive} est faux, ou de la première ligne supérieure ou égale sinon.
+     */
+    int position(SortField field, Object key, long id, boolean inclusive) {
+        int[] permutation = permutations[field.ordinal()];
+        int low = 0;
+        int high = permutation.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareToKey(field, permutation[mid], key, id);
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Vrai si le nom, la description ou le code de la ligne contient {@code lowerNeedle} (déjà en minuscules).
+     */
+    boolean contains(int row, String lowerNeedle) {
+        return containsLower(storage.names[row], lowerNeedle)
+                || containsLower(storage.descriptions[row], lowerNeedle)
+                || containsLower(storage.codes[row], lowerNeedle);
+    }
+    
+    private static boolean containsLower(String value, String lowerNeedle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(lowerNeedle);
+    }
+    
+    long id(int row) {
+        return storage.ids[row];
+    }
+    
+    String code(int row) {
+        return storage.codes[row];
+    }
+    
+    String name(int row) {
+        return storage.names[row];
+    }
+    
+    String description(int row) {
+        return storage.descriptions[row];
+    }
+    
+    String image(int row) {
+        return storage.images[row];
+    }
+    
+    int categoryId(int row) {
+        return storage.categoryIds[row];
+    }
+    
+    double price(int row) {
+        return storage.prices[row];
+    }
+    
+    int quantity(int row) {
+        return storage.quantities[row];
+    }
+    
+    String internalReference(int row) {
+        return storage.internalReferences[row];
+    }
+    
+    Long shellId(int row) {
+        return storage.shellIds[row];
+    }
+    
+    Product.InventoryStatus inventoryStatus(int row) {
+        return STATUSES[storage.statuses[row]];
+    }
+    
+    Double rating(int row) {
+        double rating = storage.ratings[row];
+        return Double.isNaN(rating) ? null : rating;
+    }
+    
+    long createdAt(int row) {
+        return storage.createdAts[row];
+    }
+    
+    long updatedAt(int row) {
+        return storage.updatedAts[row];
+    }
+    
+    // Fusion de la permutation courante, privée des lignes retirées, avec les lignes ajoutées (déjà triées)
+    private static int[] merge(Storage storage, SortField field, int[] current, BitSet removed, int[] added) {
+        int[] result = new int[current.length - countRemoved(current, removed) + added.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < current.length || j < added.length) {
+            if (i < current.length && removed.get(current[i])) {
+                i++;
+            } else if (j >= added.length || (i < current.length && compare(storage, field, current[i], added[j]) < 0)) {
+                result[n++] = current[i++];
+            } else {
+                result[n++] = added[j++];
+            }
+        }
+        return result;
+    }
+    
+    private static int[] withCapacity(int[] counts, int categoryId) {
+        return categoryId < counts.length ? counts : Arrays.copyOf(counts, categoryId + 1);
+    }
+    
+    private static int countRemoved(int[] permutation, BitSet removed) {
+        if (removed.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        for (int row : permutation) {
+            if (removed.get(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static int[] sort(Storage storage, SortField field, IntStream rows) {
+        return rows.boxed()
+                .sorted((a, b) -> compare(storage, field, a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+    
+    // Ordre (clé, id) ; les notes absentes (NaN) précèdent toutes les autres
+    private static int compare(Storage storage, SortField field, int a, int b) {
+        int cmp = switch (field) {
+            case ID -> 0;
+            case CODE -> storage.codes[a].compareTo(storage.codes[b]);
+            case NAME -> storage.names[a].compareTo(storage.names[b]);
+            case PRICE -> Double.compare(storage.prices[a], storage.prices[b]);
+            case QUANTITY -> Integer.compare(storage.quantities[a], storage.quantities[b]);
+            case RATING -> compareRatings(storage.ratings[a], storage.ratings[b]);
+        };
+        return cmp != 0 ? cmp : Long.compare(storage.ids[a], storage.ids[b]);
+    }
+    
+    private int compareToKey(SortField field, int row, Object key, long id) {
+        int cmp = switch (field) {
+            case ID -> 0;
+            case CODE -> storage.codes[row].compareTo((String) key);
+            case NAME -> storage.names[row].compareTo((String) key);
+            case PRICE -> Double.compare(storage.prices[row], ((Number) key).doubleValue());
+            case QUANTITY -> Integer.compare(storage.quantities[row], ((Number) key).intValue());
+            case RATING -> compareRatings(storage.ratings[row], key == null ? Double.NaN : ((Number) key).doubleValue());
+        };
+        return cmp != 0 ? cmp : Long.compare(storage.ids[row], id);
+    }
+    
+    private static int compareRatings(double a, double b) {
+        boolean aMissing = Double.isNaN(a);
+        boolean bMissing = Double.isNaN(b);
+        if (aMissing || bMissing) {
+            return aMissing == bMissing ? 0 : (aMissing ? -1 : 1);
+        }
+        return Double.compare(a, b);
+    }
+    
+    /**
+     * État d'un produit à l'entrée dans l'instantané, catégorie encodée par sa clé dans {@link CategoryDictionary}.
+     */
+    static final class Row {
+        
+        private final long id;
+        private final String code;
+        private final String name;
+        private final String description;
+        private final String image;
+        private final int categoryId;
+        private final double price;
+        private final int quantity;
+        private final String internalReference;
+        private final Long shellId;
+        private final byte status;
+        private final double rating;
+        private final long createdAt;
+        private final long updatedAt;
+        
+        private Row(long id, String code, String name, String description, String image, int categoryId,
+                    double price, int quantity, String internalReference, Long shellId, byte status, double rating,
+                    long createdAt, long updatedAt) {
+            this.id = id;
+            this.code = code;
+            this.name = name;
+            this.description = description;
+            this.image = image;
+            this.categoryId = categoryId;
+            this.price = price;
+            this.quantity = quantity;
+            this.internalReference = internalReference;
+            this.shellId = shellId;
+            this.status = status;
+            this.rating = rating;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+        
+        static Row of(Product product, int categoryId) {
+            return new Row(product.getId(), product.getCode(), product.getName(), product.getDescription(),
+                    product.getImage(), categoryId, product.getPrice(), product.getQuantity(),
+                    product.getInternalReference(), product.getShellId(), (byte) product.getInventoryStatus().ordinal(),
+                    product.getRating() == null ? Double.NaN : product.getRating(),
+                    product.getCreatedAt(), product.getUpdatedAt());
+        }
+    }
+    
+    // Colonnes partagées entre instantanés successifs tant que leur capacité suffit
+    private static final class Storage {
+        
+        private final long[] ids;
+        private final String[] codes;
+        private final String[] names;
+        private final String[] descriptions;
+        private final String[] images;
+        private final int[] categoryIds;
+        private final double[] prices;
+        private final int[] quantities;
+        private final String[] internalReferences;
+        private final Long[] shellIds;
+        private final byte[] statuses;
+        private final double[] ratings;
+        private final long[] createdAts;
+        private final long[] updatedAts;
+        
+        private Storage(int capacity) {
+            this(new long[capacity], new String[capacity], new String[capacity], new String[capacity],
+                    new String[capacity], new int[capacity], new double[capacity], new int[capacity],
+                    new String[capacity], new Long[capacity], new byte[capacity], new double[capacity],
+                    new long[capacity], new long[capacity]);
+        }
+        
+        private Storage(long[] ids, String[] codes, String[] names, String[] descriptions, String[] images,
+                        int[] categoryIds, double[] prices, int[] quantities, String[] internalReferences,
+                        Long[] shellIds, byte[] statuses, double[] ratings, long[] createdAts, long[] updatedAts) {
+            this.ids = ids;
+            this.codes = codes;
+            this.names = names;
+            this.descriptions = descriptions;
+            this.images = images;
+            this.categoryIds = categoryIds;
+            this.prices = prices;
+            this.quantities = quantities;
+            this.internalReferences = internalReferences;
+            this.shellIds = shellIds;
+            this.statuses = statuses;
+            this.ratings = ratings;
+            this.createdAts = createdAts;
+            this.updatedAts = updatedAts;
+        }
+        
+        // Agrandit par copie des lignes publiées ; les instantanés existants gardent les anciens tableaux
+        private Storage ensureCapacity(int rowCount, int required) {
+            if (required <= ids.length) {
+                return this;
+            }
+            int capacity = Math.max(required, ids.length + (ids.length >> 1));
+            Storage grown = new Storage(capacity);
+            System.arraycopy(ids, 0, grown.ids, 0, rowCount);
+            System.arraycopy(codes, 0, grown.codes, 0, rowCount);
+            System.arraycopy(names, 0, grown.names, 0, rowCount);
+            System.arraycopy(descriptions, 0, grown.descriptions, 0, rowCount);
+            System.arraycopy(images, 0, grown.images, 0, rowCount);
+            System.arraycopy(categoryIds, 0, grown.categoryIds, 0, rowCount);
+            System.arraycopy(prices, 0, grown.prices, 0, rowCount);
+            System.arraycopy(quantities, 0, grown.quantities, 0, rowCount);
+            System.arraycopy(internalReferences, 0, grown.internalReferences, 0, rowCount);
+            System.arraycopy(shellIds, 0, grown.shellIds, 0, rowCount);
+            System.arraycopy(statuses, 0, grown.statuses, 0, rowCount);
+            System.arraycopy(ratings, 0, grown.ratings, 0, rowCount);
+            System.arraycopy(createdAts, 0, grown.createdAts, 0, rowCount);
+            System.arraycopy(updatedAts, 0, grown.updatedAts, 0, rowCount);
+            return grown;
+        }
+        
+        private void write(int index, Row row) {
+            ids[index] = row.id;
+            codes[index] = row.code;
+            names[index] = row.name;
+            descriptions[index] = row.description;
+            images[index] = row.image;
+            categoryIds[index] = row.categoryId;
+            prices[index] = row.price;
+            quantities[index] = row.quantity;
+            internalReferences[index] = row.internalReference;
+            shellIds[index] = row.shellId;
+            statuses[index] = row.status;
+            ratings[index] = row.rating;
+            createdAts[index] = row.createdAt;
+            updatedAts[index] = row.updatedAt;
+        }
+        
+        private Row read(int index) {
+            return new Row(ids[index], codes[index], names[index], descriptions[index], images[index],
+                    categoryIds[index], prices[index], quantities[index], internalReferences[index], shellIds[index],
+                    statuses[index], ratings[index], createdAts[index], updatedAts[index]);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.dto.ProductFacets;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Agrégat en mémoire des facettes du catalogue : catégorie, statut de stock, tranche de prix et tranche de note.
+ *
+ * Chaque produit y est réduit à ses valeurs de facettes, et les comptes sont tenus par catégorie : sans
+ * recherche, les facettes se calculent à partir de ces comptes, sans parcourir les produits. Les écritures
+ * sont appliquées après commit, de sorte que l'agrégat ne reflète que des produits validés.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+    
+    private static final Product.InventoryStatus[] STATUSES = Product.InventoryStatus.values();
+    
+    private final ProductRepository productRepository;
+    private final double[] priceBounds;
+    private final double[] ratingBounds;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Counts> countsByCategory = new HashMap<>();
+    
+    public ProductFacetIndex(ProductRepository productRepository, AppProperties appProperties) {
+        this.productRepository = productRepository;
+        this.priceBounds = toSortedArray(appProperties.getFacets().getPriceBounds());
+        this.ratingBounds = toSortedArray(appProperties.getFacets().getRatingBounds());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            countsByCategory.clear();
+            for (Product product : productRepository.findAll()) {
+                put(product.getId(), toEntry(product));
+            }
+            log.info("Agrégat des facettes construit - {} produits, {} catégories", entries.size(), countsByCategory.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Long id = event.getProductId();
+        // Valeurs lues au moment de l'écriture : plusieurs écritures d'une transaction s'appliquent dans l'ordre
+        Entry entry = event.getType() == ProductChangedEvent.Type.DELETED ? null : toEntry(event.getProduct());
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                put(id, entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    /**
+     * Calcule les facettes des produits retenus.
+     *
+     * @param categories libellés des catégories retenues, ou null pour toutes
+     * @param ids identifiants des produits retenus par la recherche, ou null pour tous
+     */
+    public ProductFacets facets(Collection<String> categories, long[] ids) {
+        Counts result = new Counts(priceBounds.length + 1, ratingBounds.length + 1);
+        lock.readLock().lock();
+        try {
+            if (ids == null) {
+                countsByCategory.forEach((category, counts) -> {
+                    if (categories == null || categories.contains(category)) {
+                        result.addAll(counts);
+                    }
+                });
+            } else {
+                for (long id : ids) {
+                    Entry entry = entries.get(id);
+                    if (entry != null && (categories == null || categories.contains(entry.category))) {
+                        result.add(entry, 1);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toFacets(result);
+    }
+    
+    // Retire la contribution précédente du produit puis ajoute la nouvelle (aucune si entry est null)
+    private void put(Long id, Entry entry) {
+        Entry previous = entry == null ? entries.remove(id) : entries.put(id, entry);
+        if (previous != null) {
+            Counts counts = countsByCategory.get(previous.category);
+            counts.add(previous, -1);
+            if (counts.total == 0) {
+                countsByCategory.remove(previous.category);
+            }
+        }
+        if (entry != null) {
+            countsByCategory.computeIfAbsent(entry.category,
+                    key -> new Counts(priceBounds.length + 1, ratingBounds.length + 1)).add(entry, 1);
+        }
+    }
+    
+    private Entry toEntry(Product product) {
+        return new Entry(
+                product.getCategory(),
+                product.getInventoryStatus(),
+                bucket(priceBounds, product.getPrice()),
+                product.getRating() == null ? -1 : bucket(ratingBounds, product.getRating())
+        );
+    }
+    
+    private ProductFacets toFacets(Counts counts) {
+        Map<String, Long> categories = new LinkedHashMap<>();
+        counts.categories.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER))
+                .forEach(entry -> categories.put(entry.getKey(), entry.getValue()));
+        
+        Map<Product.InventoryStatus, Long> statuses = new EnumMap<>(Product.InventoryStatus.class);
+        for (Product.InventoryStatus status : STATUSES) {
+            statuses.put(status, counts.statuses[status.ordinal()]);
+        }
+        
+        return new ProductFacets(counts.total, categories, statuses,
+                buckets(priceBounds, counts.prices), buckets(ratingBounds, counts.ratings));
+    }
+    
+    private static List<ProductFacets.Bucket> buckets(double[] bounds, long[] counts) {
+        List<ProductFacets.Bucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            Double from = i == 0 ? null : bounds[i - 1];
+            Double to = i == bounds.length ? null : bounds[i];
+            buckets.add(new ProductFacets.Bucket(from, to, counts[i]));
+        }
+        return buckets;
+    }
+    
+    // Index de la tranche [bounds[i - 1], bounds[i]) contenant la valeur
+    static int bucket(double[] bounds, double value) {
+        int pos = Arrays.binarySearch(bounds, value);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+    
+    private static double[] toSortedArray(List<Double> bounds) {
+        return bounds.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    // Valeurs de facettes d'un produit ; ratingBucket vaut -1 pour un produit sans note
+    private static final class Entry {
+        
+        private final String category;
+        private final Product.InventoryStatus status;
+        private final int priceBucket;
+        private final int ratingBucket;
+        
+        private Entry(String category, Product.InventoryStatus status, int priceBucket, int ratingBucket) {
+            this.category = category;
+            this.status = status;
+            this.priceBucket = priceBucket;
+            this.ratingBucket = ratingBucket;
+        }
+    }
+    
+    private static final class Counts {
+        
+        private long total;
+        private final Map<String, Long> categories = new HashMap<>();
+        private final long[] statuses = new long[STATUSES.length];
+        private final long[] prices;
+        private final long[] ratings;
+        
+        private Counts(int priceBuckets, int ratingBuckets) {
+            this.prices = new long[priceBuckets];
+            this.ratings = new long[ratingBuckets];
+        }
+        
+        private void add(Entry entry, int sign) {
+            total += sign;
+            categories.merge(entry.category, (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+            statuses[entry.status.ordinal()] += sign;
+            prices[entry.priceBucket] += sign;
+            if (entry.ratingBucket >= 0) {
+                ratings[entry.ratingBucket] += sign;
+            }
+        }
+        
+        private void addAll(Counts other) {
+            total += other.total;
+            other.categories.forEach((category, count) -> categories.merge(category, count, Long::sum));
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] += other.statuses[i];
+            }
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] += other.prices[i];
+            }
+            for (int i = 0; i < ratings.length; i++) {
+                ratings[i] += other.ratings[i];
+            }
+        }
+    }
+}
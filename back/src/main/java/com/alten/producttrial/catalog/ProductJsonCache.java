@@ -0,0 +1,84 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.dto.ProductResponse;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * JSON déjà sérialisé de chaque produit, associé à la réponse dont il est issu.
+ *
+ * Un fragment n'est réutilisé que pour une réponse de contenu identique : updatedAt n'est fixé qu'au flush,
+ * une réponse d'écriture construite avant porte déjà les nouveaux champs avec l'ancienne date, et ne doit pas
+ * recevoir le JSON d'une lecture concurrente. Toute écriture sur le produit évince aussi son fragment
+ * immédiatement puis à nouveau à la fin de la transaction.
+ */
+@Component
+public class ProductJsonCache implements MeterBinder {
+    
+    private final Cache<Long, Fragment> fragments;
+    
+    public ProductJsonCache(AppProperties appProperties) {
+        this.fragments = Caffeine.newBuilder()
+                .maximumSize(appProperties.getCache().getProductJsonMaxSize())
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, fragments, "product.json");
+    }
+    
+    /**
+     * Renvoie le JSON du produit, sérialisé par {@code serializer} uniquement s'il n'est pas déjà en cache
+     * pour ce contenu. La réponse ne doit plus être modifiée une fois sérialisée.
+     */
+    public SerializableString get(ProductResponse product, Supplier<String> serializer) {
+        Long id = product.getId();
+        if (id == null) {
+            return new SerializedString(serializer.get());
+        }
+        
+        // Comparaison champ à champ, bien moins coûteuse que la sérialisation
+        Fragment cached = fragments.getIfPresent(id);
+        if (cached != null && cached.source.equals(product)) {
+            return cached.json;
+        }
+        SerializedString json = new SerializedString(serializer.get());
+        fragments.put(id, new Fragment(product, json));
+        return json;
+    }
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Long id = event.getProductId();
+        fragments.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    fragments.invalidate(id);
+                }
+            });
+        }
+    }
+    
+    @AllArgsConstructor
+    private static class Fragment {
+        private final ProductResponse source;
+        private final SerializedString json;
+    }
+}
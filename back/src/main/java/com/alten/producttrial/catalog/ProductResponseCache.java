@@ -0,0 +1,109 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Réponses HTTP sérialisées des lectures de produits, indexées par version du catalogue et paramètres de requête.
+ *
+ * Toute modification d'un produit incrémente la version et vide le cache, immédiatement puis à nouveau à la fin
+ * de la transaction : une réponse construite pendant une transaction annulée ne survit pas à celle-ci.
+ */
+@Component
+public class ProductResponseCache implements MeterBinder {
+    
+    // Distingue les versions de deux démarrages successifs : un ETag ne peut pas être réutilisé après redémarrage
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final Cache<String, CachedResponse> responses;
+    
+    public ProductResponseCache(AppProperties appProperties) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(appProperties.getCache().getResponseMaxSize().toBytes())
+                .weigher((String key, CachedResponse response) -> response.getBody().length)
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "product.responses");
+    }
+    
+    /**
+     * Version courante du catalogue, à lire avant la requête en base dont elle qualifie le résultat.
+     */
+    public long currentVersion() {
+        return version.get();
+    }
+    
+    /**
+     * ETag fort d'une représentation de liste pour une version du catalogue.
+     *
+     * @param variant distingue les représentations d'une même URL (format de sortie)
+     */
+    public String catalogEtag(long catalogVersion, String variant) {
+        return "\"" + epoch + "-" + catalogVersion + (variant == null ? "" : "-" + variant) + "\"";
+    }
+    
+    /**
+     * ETag fort d'un produit : change à chaque modification, indépendamment du reste du catalogue.
+     */
+    public String productEtag(Long productId, Long updatedAt) {
+        return "\"p" + productId + "-" + updatedAt + "\"";
+    }
+    
+    public CachedResponse get(long catalogVersion, String key, Supplier<CachedResponse> loader) {
+        return responses.get(catalogVersion + "|" + key, cacheKey -> loader.get());
+    }
+    
+    /**
+     * Réponse déjà en cache, sans la construire : pour les réponses qui ne sont mises en cache que si elles
+     * tiennent en mémoire (voir {@link #put(long, String, CachedResponse)}).
+     */
+    public CachedResponse getIfPresent(long catalogVersion, String key) {
+        return responses.getIfPresent(catalogVersion + "|" + key);
+    }
+    
+    public void put(long catalogVersion, String key, CachedResponse response) {
+        responses.put(catalogVersion + "|" + key, response);
+    }
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate();
+                }
+            });
+        }
+    }
+    
+    private void invalidate() {
+        version.incrementAndGet();
+        responses.invalidateAll();
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    public static class CachedResponse {
+        private final String etag;
+        private final byte[] body;
+    }
+}
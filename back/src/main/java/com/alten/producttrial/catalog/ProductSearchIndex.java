@@ -0,0 +1,337 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire (terme → identifiants de produits triés) sur le nom, la description et le code.
+ *
+ * L'index sert de pré-filtre pour la recherche : il renvoie un sur-ensemble des produits dont un champ
+ * contient la chaîne recherchée, que la requête SQL restreint ensuite par clé primaire. Les termes d'une
+ * écriture sont visibles immédiatement, ceux qu'elle retire seulement après commit, de sorte qu'une
+ * transaction en cours ne puisse jamais masquer un produit ; un rollback ramène le produit à ses termes
+ * validés. Le vocabulaire est aussi indexé par suffixe, trié, pour résoudre un terme de la requête
+ * contenu dans un terme indexé sans parcourir tout le vocabulaire.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+    
+    private static final long[] EMPTY = new long[0];
+    
+    private final ProductRepository productRepository;
+    private final AppProperties appProperties;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, long[]> postings = new HashMap<>();
+    private final NavigableMap<String, Set<String>> termsBySuffix = new TreeMap<>();
+    // Termes présents dans les postings, termes validés et termes des écritures non terminées, par produit
+    private final Map<Long, Set<String>> indexedTerms = new HashMap<>();
+    private final Map<Long, Set<String>> committedTerms = new HashMap<>();
+    private final Map<Long, List<Set<String>>> pendingTerms = new HashMap<>();
+    private volatile boolean ready;
+    
+    public ProductSearchIndex(ProductRepository productRepository, AppProperties appProperties) {
+        this.productRepository = productRepository;
+        this.appProperties = appProperties;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsBySuffix.clear();
+            indexedTerms.clear();
+            committedTerms.clear();
+            for (Product product : productRepository.findAll()) {
+                commit(product.getId(), tokenize(product));
+            }
+            pendingTerms.keySet().forEach(this::sync);
+            ready = true;
+            log.info("Index de recherche construit - {} produits, {} termes", committedTerms.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Long id = event.getProductId();
+        boolean deleted = event.getType() == ProductChangedEvent.Type.DELETED;
+        Set<String> terms = deleted ? Collections.emptySet() : tokenize(event.getProduct());
+        
+        lock.writeLock().lock();
+        try {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                commit(id, terms);
+                return;
+            }
+            if (!deleted) {
+                pendingTerms.computeIfAbsent(id, key -> new ArrayList<>()).add(terms);
+                sync(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        // Les synchronisations s'exécutent dans l'ordre d'enregistrement : la dernière écriture validée l'emporte
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.writeLock().lock();
+                try {
+                    if (!deleted) {
+                        List<Set<String>> pending = pendingTerms.get(id);
+                        pending.remove(terms);
+                        if (pending.isEmpty()) {
+                            pendingTerms.remove(id);
+                        }
+                    }
+                    if (status == STATUS_COMMITTED) {
+                        commit(id, terms);
+                    } else {
+                        sync(id);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Calcule les produits candidats pour une recherche.
+     *
+     * @return les identifiants triés des produits pouvant correspondre, ou null si l'index ne permet pas
+     *         de restreindre la recherche (index non prêt, aucun terme exploitable, trop de candidats)
+     */
+    public long[] findCandidates(String search) {
+        if (!ready || search == null) {
+            return null;
+        }
+        Set<String> tokens = tokenize(search);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        
+        long[] candidates;
+        lock.readLock().lock();
+        try {
+            candidates = candidates(tokens);
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        if (candidates.length > appProperties.getSearch().getMaxCandidates()) {
+            return null;
+        }
+        return candidates;
+    }
+    
+    /**
+     * Calcule exactement les produits validés dont le nom, la description ou le code contient la chaîne recherchée.
+     *
+     * @return les identifiants triés des produits correspondants, ou null si l'index ne garantit pas le
+     *         résultat (chaîne à plusieurs termes ou avec séparateurs, index non prêt, trop de candidats,
+     *         candidat dont une écriture n'est pas encore validée)
+     */
+    public long[] findMatches(String search) {
+        if (!ready || search == null) {
+            return null;
+        }
+        // Une chaîne faite d'un seul terme ne peut apparaître dans un champ qu'à l'intérieur d'un de ses termes :
+        // les candidats sont alors exactement les produits correspondants
+        Set<String> tokens = tokenize(search);
+        if (tokens.size() != 1 || !tokens.contains(search.toLowerCase(Locale.ROOT))) {
+            return null;
+        }
+        
+        long[] candidates;
+        lock.readLock().lock();
+        try {
+            candidates = candidates(tokens);
+            // Les termes d'une écriture en cours ne sont pas encore validés (et peuvent être annulés)
+            for (long id : candidates) {
+                if (pendingTerms.containsKey(id)) {
+                    return null;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        if (candidates.length > appProperties.getSearch().getMaxCandidates()) {
+            return null;
+        }
+        return candidates;
+    }
+    
+    private long[] candidates(Set<String> tokens) {
+        long[] candidates = null;
+        for (String token : tokens) {
+            long[] matches = postingsContaining(token);
+            candidates = candidates == null ? matches : intersect(candidates, matches);
+            if (candidates.length == 0) {
+                return EMPTY;
+            }
+        }
+        return candidates;
+    }
+    
+    // Un terme de la requête sans séparateur ne peut apparaître qu'à l'intérieur d'un seul terme indexé,
+    // c'est-à-dire au début d'un de ses suffixes
+    private long[] postingsContaining(String token) {
+        Set<String> terms = new HashSet<>();
+        termsBySuffix.subMap(token, true, token + Character.MAX_VALUE, false).values().forEach(terms::addAll);
+        if (terms.isEmpty()) {
+            return EMPTY;
+        }
+        if (terms.size() == 1) {
+            return postings.get(terms.iterator().next());
+        }
+        return terms.stream().map(postings::get).flatMapToLong(Arrays::stream).sorted().distinct().toArray();
+    }
+    
+    private void commit(Long id, Set<String> terms) {
+        if (terms.isEmpty()) {
+            committedTerms.remove(id);
+        } else {
+            committedTerms.put(id, terms);
+        }
+        sync(id);
+    }
+    
+    // Aligne les postings du produit sur ses termes validés et ceux de ses écritures non terminées
+    private void sync(Long id) {
+        Set<String> wanted = new HashSet<>(committedTerms.getOrDefault(id, Collections.emptySet()));
+        pendingTerms.getOrDefault(id, Collections.emptyList()).forEach(wanted::addAll);
+        Set<String> indexed = indexedTerms.getOrDefault(id, Collections.emptySet());
+        for (String term : indexed) {
+            if (!wanted.contains(term)) {
+                removePosting(term, id);
+            }
+        }
+        for (String term : wanted) {
+            if (!indexed.contains(term)) {
+                addPosting(term, id);
+            }
+        }
+        if (wanted.isEmpty()) {
+            indexedTerms.remove(id);
+        } else {
+            indexedTerms.put(id, wanted);
+        }
+    }
+    
+    private void addPosting(String term, long id) {
+        long[] ids = postings.get(term);
+        if (ids == null) {
+            for (int i = 0; i < term.length(); i++) {
+                termsBySuffix.computeIfAbsent(term.substring(i), key -> new HashSet<>()).add(term);
+            }
+            ids = EMPTY;
+        }
+        postings.put(term, insert(ids, id));
+    }
+    
+    private void removePosting(String term, long id) {
+        long[] remaining = remove(postings.get(term), id);
+        if (remaining.length > 0) {
+            postings.put(term, remaining);
+            return;
+        }
+        postings.remove(term);
+        for (int i = 0; i < term.length(); i++) {
+            String suffix = term.substring(i);
+            Set<String> terms = termsBySuffix.get(suffix);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                termsBySuffix.remove(suffix);
+            }
+        }
+    }
+    
+    static Set<String> tokenize(Product product) {
+        Set<String> terms = new HashSet<>();
+        terms.addAll(tokenize(product.getName()));
+        terms.addAll(tokenize(product.getDescription()));
+        terms.addAll(tokenize(product.getCode()));
+        return terms;
+    }
+    
+    static Set<String> tokenize(String value) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (value == null) {
+            return terms;
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean tokenChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+    
+    private static long[] insert(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        int insertAt = -pos - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+    
+    private static long[] remove(long[] ids, long id) {
+        if (ids == null) {
+            return EMPTY;
+        }
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        System.arraycopy(ids, pos + 1, result, pos, ids.length - pos - 1);
+        return result;
+    }
+    
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
@@ -0,0 +1,475 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.dto.ProductFilter;
+import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.dto.ProductSummary;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Instantané en colonnes du catalogue, qui répond aux listes paginées, filtrées et triées sans JPA.
+ *
+ * L'instantané publié est immuable : les écritures d'une transaction sont regroupées puis appliquées après
+ * commit en une seule bascule, de sorte qu'une lecture voit un catalogue validé et cohérent. Les requêtes
+ * renvoient vide lorsque l'instantané ne peut pas garantir la réponse de la base ; l'appelant lit alors en base.
+ *
+ * Les bornes de prix et de note sont résolues par recherche dichotomique dans les permutations triées. Le plus
+ * petit ensemble de lignes parmi ces tranches et les candidats de l'index de recherche est seul parcouru, puis
+ * remis dans l'ordre demandé par les rangs : le coût dépend de sa taille et non de celle du catalogue.
+ */
+@Slf4j
+@Component
+public class ProductSnapshot {
+    
+    private final ProductRepository productRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final ProductSearchIndex productSearchIndex;
+    private final EntityManager entityManager;
+    
+    private volatile ProductColumns columns;
+    
+    public ProductSnapshot(ProductRepository productRepository, CategoryDictionary categoryDictionary,
+                           ProductSearchIndex productSearchIndex, EntityManager entityManager) {
+        this.productRepository = productRepository;
+        this.categoryDictionary = categoryDictionary;
+        this.productSearchIndex = productSearchIndex;
+        this.entityManager = entityManager;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        List<ProductColumns.Row> rows = new ArrayList<>();
+        try (Stream<Product> products = productRepository.streamAllByOrderById()) {
+            products.forEach(product -> {
+                rows.add(toRow(product));
+                entityManager.detach(product);
+            });
+        }
+        columns = ProductColumns.build(rows);
+        log.info("Instantané du catalogue construit - {} produits", rows.size());
+    }
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        // État lu au moment de l'écriture ; seule la dernière écriture d'un produit dans la transaction compte
+        ProductColumns.Row row = event.getType() == ProductChangedEvent.Type.DELETED ? null : toRow(event.getProduct());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Long, ProductColumns.Row> changes = new HashMap<>();
+            changes.put(event.getProductId(), row);
+            apply(changes);
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Map<Long, ProductColumns.Row> pending = (Map<Long, ProductColumns.Row>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, ProductColumns.Row> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(changes);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductSnapshot.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.put(event.getProductId(), row);
+    }
+    
+    /**
+     * Page de produits triée sur un seul attribut, filtrée comme les listes de {@code ProductService}.
+     *
+     * @return la page, ou vide si l'instantané ne peut pas y répondre (tri non indexé, recherche avec
+     *         caractères génériques LIKE, écritures non validées dans la transaction courante)
+     */
+    public <T> Optional<Page<T>> findPage(Class<T> type, Pageable pageable, ProductFilter filter) {
+        ProductColumns snapshot = readable(filter.getSearch());
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        Sort.Order order = singleOrder(pageable.getSort());
+        ProductColumns.SortField field = order == null ? null : ProductColumns.SortField.of(order.getProperty());
+        if (pageable.getSort().isSorted() && (field == null || order.isIgnoreCase())) {
+            return Optional.empty();
+        }
+        
+        View view = select(snapshot, filter, field != null ? field : ProductColumns.SortField.ID);
+        boolean descending = order != null && order.isDescending();
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        List<T> content = new ArrayList<>(Math.min(limit, snapshot.size()));
+        
+        int position = view.skip(descending ? snapshot.size() - 1 : 0, offset, descending);
+        for (; position >= 0 && content.size() < limit; position = view.next(position, descending)) {
+            content.add(map(type, snapshot, view.row(position)));
+        }
+        return Optional.of(new PageImpl<>(content, pageable, view.total()));
+    }
+    
+    /**
+     * Produits qui suivent (lastKey, lastId) dans l'ordre demandé, comme {@code ProductRepository.findSeekAs}.
+     *
+     * @return au plus {@code limit} produits, ou vide si l'instantané ne peut pas répondre
+     */
+    public <T> Optional<List<T>> findSeek(Class<T> type, ProductFilter filter, String sortBy, Sort.Direction direction,
+                                          Object lastKey, Long lastId, int limit) {
+        ProductColumns snapshot = readable(filter.getSearch());
+        ProductColumns.SortField field = ProductColumns.SortField.of(sortBy);
+        if (snapshot == null || field == null) {
+            return Optional.empty();
+        }
+        
+        View view = select(snapshot, filter, field);
+        boolean descending = direction == Sort.Direction.DESC;
+        int start;
+        if (lastId == null) {
+            start = descending ? snapshot.size() - 1 : 0;
+        } else {
+            start = descending ? snapshot.position(field, lastKey, lastId, true) - 1
+                : snapshot.position(field, lastKey, lastId, false);
+        }
+        
+        List<T> content = new ArrayList<>(Math.min(limit, snapshot.size()));
+        for (int position = view.skip(start, 0, descending); position >= 0 && content.size() < limit;
+             position = view.next(position, descending)) {
+            content.add(map(type, snapshot, view.row(position)));
+        }
+        return Optional.of(content);
+    }
+    
+    /**
+     * Nombre de produits correspondant aux filtres, ou vide si l'instantané ne peut pas répondre.
+     */
+    public Optional<Long> count(ProductFilter filter) {
+        ProductColumns snapshot = readable(filter.getSearch());
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        return Optional.of(select(snapshot, filter, ProductColumns.SortField.ID).total());
+    }
+    
+    private synchronized void apply(Map<Long, ProductColumns.Row> changes) {
+        // Avant la construction initiale, les écritures validées seront lues par rebuild()
+        if (columns != null && !changes.isEmpty()) {
+            columns = columns.apply(changes);
+        }
+    }
+    
+    // Instantané utilisable pour la requête, ou null
+    private ProductColumns readable(String search) {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            // La transaction courante a écrit des produits : seule la base voit ses propres écritures
+            return null;
+        }
+        if (search != null && (search.indexOf('%') >= 0 || search.indexOf('_') >= 0 || search.indexOf('\\') >= 0)) {
+            return null;
+        }
+        return columns;
+    }
+    
+    /**
+     * Positions, dans la permutation de {@code sortField}, des produits retenus par le filtre, avec la
+     * sémantique de la requête SQL.
+     */
+    private View select(ProductColumns snapshot, ProductFilter filter, ProductColumns.SortField sortField) {
+        int[] permutation = snapshot.permutation(sortField);
+        View empty = new View(permutation, 0, 0, null, null, 0);
+        List<IntPredicate> conditions = new ArrayList<>();
+        long categoryTotal = -1;
+        // Ensemble de lignes le plus restreint connu, seul parcouru lorsqu'il existe
+        Candidates driver = null;
+        
+        if (hasText(filter.getCategory())) {
+            int[] categoryIds = categoryDictionary.findMatching(filter.getCategory()).stream()
+                .mapToInt(categoryDictionary::idOf)
+                .toArray();
+            if (categoryIds.length == 0) {
+                return empty;
+            }
+            conditions.add(row -> contains(categoryIds, snapshot.categoryId(row)));
+            categoryTotal = 0;
+            for (int categoryId : categoryIds) {
+                categoryTotal += snapshot.countOf(categoryId);
+            }
+        }
+        
+        if (filter.getInventoryStatus() != null) {
+            Product.InventoryStatus status = filter.getInventoryStatus();
+            conditions.add(row -> snapshot.inventoryStatus(row) == status);
+        }
+        
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            Candidates prices = Candidates.range(snapshot, ProductColumns.SortField.PRICE,
+                filter.getMinPrice(), filter.getMaxPrice());
+            if (prices.size() == 0) {
+                return empty;
+            }
+            conditions.add(prices.condition);
+            driver = Candidates.smallest(driver, prices);
+        }
+        
+        if (filter.getMinRating() != null) {
+            Candidates ratings = Candidates.range(snapshot, ProductColumns.SortField.RATING, filter.getMinRating(), null);
+            if (ratings.size() == 0) {
+                return empty;
+            }
+            conditions.add(ratings.condition);
+            driver = Candidates.smallest(driver, ratings);
+        }
+        
+        if (hasText(filter.getSearch())) {
+            String needle = filter.getSearch().toLowerCase(Locale.ROOT);
+            conditions.add(row -> snapshot.contains(row, needle));
+            // Les candidats de l'index contiennent tous les produits correspondants : seul le texte est vérifié
+            long[] candidates = productSearchIndex.findCandidates(filter.getSearch());
+            if (candidates != null) {
+                int[] rows = new int[candidates.length];
+                int count = 0;
+                for (long id : candidates) {
+                    int row = snapshot.rowOf(id);
+                    if (row >= 0) {
+                        rows[count++] = row;
+                    }
+                }
+                if (count == 0) {
+                    return empty;
+                }
+                driver = Candidates.smallest(driver, new Candidates(null, rows, 0, count, null));
+            }
+        }
+        
+        int n = permutation.length;
+        if (driver == null) {
+            IntPredicate test = and(conditions, null);
+            // Filtre sur la catégorie seule : le total est tenu par l'instantané, le parcours s'arrête à la page
+            long total = test == null ? n : (conditions.size() == 1 && categoryTotal >= 0 ? categoryTotal : -1);
+            return new View(permutation, 0, n, test, null, total);
+        }
+        if (driver.field == sortField) {
+            // Tri sur l'attribut de la tranche : la page se lit directement dans la tranche
+            IntPredicate residual = and(conditions, driver.condition);
+            return new View(permutation, driver.from, driver.to, residual, null, residual == null ? driver.size() : -1);
+        }
+        
+        // Les rangs des lignes retenues, marqués dans l'ordre du tri, donnent la page sans trier
+        IntPredicate test = and(conditions, driver.condition);
+        BitSet positions = new BitSet(n);
+        for (int i = driver.from; i < driver.to; i++) {
+            int row = driver.rows[i];
+            if (test == null || test.test(row)) {
+                positions.set(snapshot.rank(sortField, row));
+            }
+        }
+        return new View(permutation, 0, n, null, positions, positions.cardinality());
+    }
+    
+    private <T> T map(Class<T> type, ProductColumns snapshot, int row) {
+        if (type == ProductSummary.class) {
+            return type.cast(new ProductSummary(snapshot.id(row), snapshot.code(row), snapshot.name(row),
+                snapshot.price(row), snapshot.image(row), snapshot.inventoryStatus(row), snapshot.rating(row)));
+        }
+        if (type == ProductResponse.class) {
+            ProductResponse response = new ProductResponse();
+            response.setId(snapshot.id(row));
+            response.setCode(snapshot.code(row));
+            response.setName(snapshot.name(row));
+            response.setDescription(snapshot.description(row));
+            response.setImage(snapshot.image(row));
+            response.setCategory(categoryDictionary.nameOf(snapshot.categoryId(row)));
+            response.setPrice(snapshot.price(row));
+            response.setQuantity(snapshot.quantity(row));
+            response.setInternalReference(snapshot.internalReference(row));
+            response.setShellId(snapshot.shellId(row));
+            response.setInventoryStatus(snapshot.inventoryStatus(row));
+            response.setRating(snapshot.rating(row));
+            response.setCreatedAt(snapshot.createdAt(row));
+            response.setUpdatedAt(snapshot.updatedAt(row));
+            return type.cast(response);
+        }
+        throw new IllegalArgumentException("Unsupported projection: " + type.getName());
+    }
+    
+    private ProductColumns.Row toRow(Product product) {
+        return ProductColumns.Row.of(product, categoryDictionary.idOf(product.getCategory()));
+    }
+    
+    // Conjonction des conditions, sans celle qu'un ensemble de candidats garantit déjà ; null si aucune
+    private static IntPredicate and(List<IntPredicate> conditions, IntPredicate implied) {
+        IntPredicate result = null;
+        for (IntPredicate condition : conditions) {
+            if (condition != implied) {
+                result = result == null ? condition : result.and(condition);
+            }
+        }
+        return result;
+    }
+    
+    private static Sort.Order singleOrder(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return null;
+        }
+        Sort.Order order = orders.next();
+        return orders.hasNext() ? null : order;
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+    
+    private static boolean contains(int[] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Lignes rows[from, to) susceptibles de correspondre : tranche d'une permutation pour une borne de prix
+     * ou de note ({@code field} renseigné), ou candidats de l'index de recherche.
+     */
+    private static final class Candidates {
+        
+        private final ProductColumns.SortField field;
+        private final int[] rows;
+        private final int from;
+        private final int to;
+        // Appartenance à la tranche, testée par le rang de la ligne ; null pour les candidats de la recherche
+        private final IntPredicate condition;
+        
+        private Candidates(ProductColumns.SortField field, int[] rows, int from, int to, IntPredicate condition) {
+            this.field = field;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.condition = condition;
+        }
+        
+        private static Candidates range(ProductColumns snapshot, ProductColumns.SortField field, Double min, Double max) {
+            int[] bounds = snapshot.range(field, min, max);
+            int from = bounds[0];
+            int to = bounds[1];
+            IntPredicate condition = row -> {
+                int rank = snapshot.rank(field, row);
+                return rank >= from && rank < to;
+            };
+            return new Candidates(field, snapshot.permutation(field), from, to, condition);
+        }
+        
+        private static Candidates smallest(Candidates current, Candidates other) {
+            return current == null || other.size() < current.size() ? other : current;
+        }
+        
+        private int size() {
+            return to - from;
+        }
+    }
+    
+    /**
+     * Positions retenues dans une permutation : soit les positions [from, to) qui vérifient {@code test}
+     * (toutes si test est null), soit les positions marquées dans {@code positions}.
+     */
+    private static final class View {
+        
+        private final int[] permutation;
+        private final int from;
+        private final int to;
+        private final IntPredicate test;
+        private final BitSet positions;
+        private long total;
+        
+        private View(int[] permutation, int from, int to, IntPredicate test, BitSet positions, long total) {
+            this.permutation = permutation;
+            this.from = from;
+            this.to = to;
+            this.test = test;
+            this.positions = positions;
+            this.total = total;
+        }
+        
+        private int row(int position) {
+            return permutation[position];
+        }
+        
+        /**
+         * Première position retenue à partir de {@code start} dans le sens du parcours, après en avoir
+         * sauté {@code offset} ; -1 s'il n'y en a pas.
+         */
+        private int skip(int start, long offset, boolean descending) {
+            if (positions == null && test == null) {
+                // Toutes les positions de la tranche sont retenues : saut direct
+                long position = descending ? Math.min(start, to - 1) - offset : Math.max(start, from) + offset;
+                return position >= from && position < to ? (int) position : -1;
+            }
+            int position = first(start, descending);
+            for (long i = 0; i < offset && position >= 0; i++) {
+                position = next(position, descending);
+            }
+            return position;
+        }
+        
+        private int next(int position, boolean descending) {
+            return first(descending ? position - 1 : position + 1, descending);
+        }
+        
+        private int first(int start, boolean descending) {
+            if (positions != null) {
+                if (descending) {
+                    return start < 0 ? -1 : positions.previousSetBit(Math.min(start, permutation.length - 1));
+                }
+                return start >= permutation.length ? -1 : positions.nextSetBit(Math.max(start, 0));
+            }
+            if (descending) {
+                for (int position = Math.min(start, to - 1); position >= from; position--) {
+                    if (test == null || test.test(permutation[position])) {
+                        return position;
+                    }
+                }
+            } else {
+                for (int position = Math.max(start, from); position < to; position++) {
+                    if (test == null || test.test(permutation[position])) {
+                        return position;
+                    }
+                }
+            }
+            return -1;
+        }
+        
+        private long total() {
+            if (total < 0) {
+                long count = 0;
+                for (int position = from; position < to; position++) {
+                    if (test.test(permutation[position])) {
+                        count++;
+                    }
+                }
+                total = count;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.alten.producttrial.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Accumule la sortie en mémoire tant qu'elle reste sous une limite, puis bascule vers le flux cible :
+ * le contenu déjà accumulé y est recopié et la suite y est écrite directement.
+ *
+ * Une sortie restée en mémoire ({@link #isSpilled()} faux) peut être mise en cache et envoyée après coup ;
+ * une sortie ayant basculé a déjà été écrite, au moins en partie, sur le flux cible.
+ */
+public class SpillOutputStream extends OutputStream {
+    
+    private final long limit;
+    private final OutputStream target;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    
+    public SpillOutputStream(long limit, OutputStream target) {
+        this.limit = limit;
+        this.target = target;
+    }
+    
+    public boolean isSpilled() {
+        return buffer == null;
+    }
+    
+    /**
+     * Contenu accumulé en mémoire.
+     *
+     * @throws IllegalStateException si la sortie a basculé vers le flux cible
+     */
+    public byte[] toByteArray() {
+        if (isSpilled()) {
+            throw new IllegalStateException("Output already spilled to the target stream");
+        }
+        return buffer.toByteArray();
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+    
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (buffer != null && buffer.size() + (long) length > limit) {
+            buffer.writeTo(target);
+            buffer = null;
+        }
+        if (buffer != null) {
+            buffer.write(bytes, offset, length);
+        } else {
+            target.write(bytes, offset, length);
+        }
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        // Tant que tout tient en mémoire, rien n'est envoyé : le générateur JSON ne doit pas forcer la bascule
+        if (isSpilled()) {
+            target.flush();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
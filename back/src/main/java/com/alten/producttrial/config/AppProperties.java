@@ -2,12 +2,22 @@ package com.alten.producttrial.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @ConfigurationProperties(prefix = "app")
 public class AppProperties {
     
     private Admin admin = new Admin();
+    private Search search = new Search();
+    private Facets facets = new Facets();
+    private Cache cache = new Cache();
+    private BulkImport bulkImport = new BulkImport();
+    private RequestLimit requestLimit = new RequestLimit();
+    private PasswordHashing passwordHashing = new PasswordHashing();
     
     public Admin getAdmin() {
         return admin;
@@ -17,6 +27,54 @@ public class AppProperties {
         this.admin = admin;
     }
     
+    public Search getSearch() {
+        return search;
+    }
+    
+    public void setSearch(Search search) {
+        this.search = search;
+    }
+    
+    public Facets getFacets() {
+        return facets;
+    }
+    
+    public void setFacets(Facets facets) {
+        this.facets = facets;
+    }
+    
+    public Cache getCache() {
+        return cache;
+    }
+    
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+    
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+    
+    public void setBulkImport(BulkImport bulkImport) {
+        this.bulkImport = bulkImport;
+    }
+    
+    public RequestLimit getRequestLimit() {
+        return requestLimit;
+    }
+    
+    public void setRequestLimit(RequestLimit requestLimit) {
+        this.requestLimit = requestLimit;
+    }
+    
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+    
+    public void setPasswordHashing(PasswordHashing passwordHashing) {
+        this.passwordHashing = passwordHashing;
+    }
+    
     public static class Admin {
         private String email = "admin@admin.com";
         
@@ -28,4 +86,227 @@ public class AppProperties {
             this.email = email;
         }
     }
+    
+    public static class Search {
+        // Au-delà de ce nombre de candidats, l'index n'est plus sélectif et la recherche repasse par un scan
+        private int maxCandidates = 1000;
+        
+        public int getMaxCandidates() {
+            return maxCandidates;
+        }
+        
+        public void setMaxCandidates(int maxCandidates) {
+            this.maxCandidates = maxCandidates;
+        }
+    }
+    
+    public static class Facets {
+        // Bornes des tranches, croissantes : n bornes donnent n + 1 tranches, la première et la dernière ouvertes
+        private List<Double> priceBounds = List.of(25.0, 50.0, 100.0, 250.0);
+        private List<Double> ratingBounds = List.of(1.0, 2.0, 3.0, 4.0);
+        
+        public List<Double> getPriceBounds() {
+            return priceBounds;
+        }
+        
+        public void setPriceBounds(List<Double> priceBounds) {
+            this.priceBounds = priceBounds;
+        }
+        
+        public List<Double> getRatingBounds() {
+            return ratingBounds;
+        }
+        
+        public void setRatingBounds(List<Double> ratingBounds) {
+            this.ratingBounds = ratingBounds;
+        }
+    }
+    
+    public static class Cache {
+        // Cache de second niveau des produits : le catalogue change rarement, les lectures dominent
+        private long productMaxSize = 10000;
+        private Duration productTtl = Duration.ofHours(1);
+        private long queryMaxSize = 1000;
+        private Duration queryTtl = Duration.ofMinutes(10);
+        // Réponses HTTP sérialisées des lectures de produits, bornées en octets
+        private DataSize responseMaxSize = DataSize.ofMegabytes(16);
+        // Export complet du catalogue : rendu en mémoire et mis en cache en deçà, lu en flux depuis la base au-delà
+        private DataSize exportMaxSize = DataSize.ofMegabytes(4);
+        // Fragments JSON des produits, réutilisés dans les réponses panier et liste d'envies
+        private long productJsonMaxSize = 10000;
+        // Utilisateurs chargés par email (login, tokens sans identifiant) ; évincés aussi à chaque écriture
+        private long userMaxSize = 10000;
+        private Duration userTtl = Duration.ofMinutes(5);
+        // Emails inconnus, pour absorber les tentatives répétées sans requête en base
+        private long unknownUserMaxSize = 10000;
+        private Duration unknownUserTtl = Duration.ofMinutes(1);
+        
+        public long getProductMaxSize() {
+            return productMaxSize;
+        }
+        
+        public void setProductMaxSize(long productMaxSize) {
+            this.productMaxSize = productMaxSize;
+        }
+        
+        public Duration getProductTtl() {
+            return productTtl;
+        }
+        
+        public void setProductTtl(Duration productTtl) {
+            this.productTtl = productTtl;
+        }
+        
+        public long getQueryMaxSize() {
+            return queryMaxSize;
+        }
+        
+        public void setQueryMaxSize(long queryMaxSize) {
+            this.queryMaxSize = queryMaxSize;
+        }
+        
+        public Duration getQueryTtl() {
+            return queryTtl;
+        }
+        
+        public void setQueryTtl(Duration queryTtl) {
+            this.queryTtl = queryTtl;
+        }
+        
+        public DataSize getResponseMaxSize() {
+            return responseMaxSize;
+        }
+        
+        public void setResponseMaxSize(DataSize responseMaxSize) {
+            this.responseMaxSize = responseMaxSize;
+        }
+        
+        public DataSize getExportMaxSize() {
+            return exportMaxSize;
+        }
+        
+        public void setExportMaxSize(DataSize exportMaxSize) {
+            this.exportMaxSize = exportMaxSize;
+        }
+        
+        public long getProductJsonMaxSize() {
+            return productJsonMaxSize;
+        }
+        
+        public void setProductJsonMaxSize(long productJsonMaxSize) {
+            this.productJsonMaxSize = productJsonMaxSize;
+        }
+        
+        public long getUserMaxSize() {
+            return userMaxSize;
+        }
+        
+        public void setUserMaxSize(long userMaxSize) {
+            this.userMaxSize = userMaxSize;
+        }
+        
+        public Duration getUserTtl() {
+            return userTtl;
+        }
+        
+        public void setUserTtl(Duration userTtl) {
+            this.userTtl = userTtl;
+        }
+        
+        public long getUnknownUserMaxSize() {
+            return unknownUserMaxSize;
+        }
+        
+        public void setUnknownUserMaxSize(long unknownUserMaxSize) {
+            this.unknownUserMaxSize = unknownUserMaxSize;
+        }
+        
+        public Duration getUnknownUserTtl() {
+            return unknownUserTtl;
+        }
+        
+        public void setUnknownUserTtl(Duration unknownUserTtl) {
+            this.unknownUserTtl = unknownUserTtl;
+        }
+    }
+    
+    public static class BulkImport {
+        // Lignes écrites par transaction (et par lot JDBC) lors d'un import de produits
+        private int batchSize = 500;
+        // Nombre maximal de lignes rejetées détaillées dans le rapport d'import
+        private int maxReportedErrors = 100;
+        
+        public int getBatchSize() {
+            return batchSize;
+        }
+        
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+        
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+        
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+    
+    public static class RequestLimit {
+        // Requêtes traitées simultanément en mode threads virtuels, où Tomcat ne borne plus la concurrence
+        // (deux fois le pool JDBC)
+        private int maxInFlight = 40;
+        // Attente maximale d'une place avant de répondre 503
+        private Duration queueTimeout = Duration.ofSeconds(3);
+        
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+        
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+        
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+        
+        public void setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+        }
+    }
+    
+    public static class PasswordHashing {
+        // Facteur de coût BCrypt (2^strength itérations) ; les hachages existants restent vérifiables s'il change
+        private int strength = 10;
+        // Hachages exécutés en parallèle ; 0 : un par processeur
+        private int threads = 0;
+        // Hachages en attente au-delà desquels login et inscription sont refusés (503)
+        private int queueCapacity = 32;
+        
+        public int getStrength() {
+            return strength;
+        }
+        
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+        
+        public int getThreads() {
+            return threads;
+        }
+        
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+        
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.alten.producttrial.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Cache de second niveau Hibernate : régions JCache en mémoire (Caffeine), bornées en taille et en durée de vie.
+ */
+@Configuration
+public class CacheConfig {
+    
+    public static final String PRODUCT_REGION = "products";
+    
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(AppProperties appProperties) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, createCacheManager(appProperties.getCache()));
+    }
+    
+    // Un gestionnaire propre à chaque SessionFactory, qui le ferme à son arrêt
+    static CacheManager createCacheManager(AppProperties.Cache settings) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), CacheConfig.class.getClassLoader());
+        
+        cacheManager.createCache(PRODUCT_REGION,
+                region(settings.getProductMaxSize(), settings.getProductTtl()));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(settings.getQueryMaxSize(), settings.getQueryTtl()));
+        // Une entrée par table : les horodatages ne doivent pas expirer avant les résultats de requêtes qu'ils valident
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStoreByValue(false);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        return cacheManager;
+    }
+    
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Les entrées Hibernate sont déjà des copies désassemblées : inutile de les sérialiser à nouveau
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+}
@@ -0,0 +1,99 @@
+package com.alten.producttrial.config;
+
+import com.alten.producttrial.catalog.ProductJsonCache;
+import com.alten.producttrial.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Personnalisation de l'ObjectMapper de l'application.
+ */
+@Configuration
+public class JacksonConfig {
+    
+    // Enregistré automatiquement sur l'ObjectMapper par Spring Boot
+    @Bean
+    public Module productJsonModule(ProductJsonCache productJsonCache) {
+        SimpleModule module = new SimpleModule("product-json");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                if (beanDesc.getBeanClass() == ProductResponse.class) {
+                    return new CachedProductSerializer(productJsonCache, (JsonSerializer<Object>) serializer);
+                }
+                return serializer;
+            }
+        });
+        return module;
+    }
+    
+    /**
+     * Écrit le fragment JSON en cache du produit tel quel, dans une liste ou à l'intérieur d'un article
+     * de panier ; seul un produit absent ou modifié passe par le sérialiseur standard.
+     *
+     * Volontairement non contextuel : un même produit a ainsi une représentation unique, quel que soit
+     * l'objet qui le contient.
+     */
+    static class CachedProductSerializer extends StdSerializer<ProductResponse> implements ResolvableSerializer {
+        
+        private static final JsonFactory DEFAULT_FACTORY = new JsonFactory();
+        
+        private final ProductJsonCache cache;
+        private final JsonSerializer<Object> delegate;
+        
+        CachedProductSerializer(ProductJsonCache cache, JsonSerializer<Object> delegate) {
+            super(ProductResponse.class);
+            this.cache = cache;
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) delegate).resolve(provider);
+            }
+        }
+        
+        @Override
+        public void serialize(ProductResponse product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            SerializableString json;
+            try {
+                json = cache.get(product, () -> render(product, gen, provider));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            gen.writeRawValue(json);
+        }
+        
+        // Générateur issu de la fabrique de l'ObjectMapper : le fragment garde ses fonctionnalités de génération
+        private String render(ProductResponse product, JsonGenerator gen, SerializerProvider provider) {
+            JsonFactory factory = gen.getCodec() != null ? gen.getCodec().getFactory() : DEFAULT_FACTORY;
+            StringWriter writer = new StringWriter();
+            try (JsonGenerator fragment = factory.createGenerator(writer)) {
+                delegate.serialize(product, fragment, provider);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return writer.toString();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.alten.producttrial.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+    
+    private String secret;
+    private Long expiration;
+    // Identifiant (kid) de la clé courante, utilisée pour signer les nouveaux tokens
+    private String keyId = "primary";
+    // Anciennes clés encore acceptées en vérification pendant une rotation (kid -> secret)
+    private Map<String, String> previousKeys = new HashMap<>();
+    // Construit le principal depuis les claims du token plutôt que de relire l'utilisateur en base
+    private boolean statelessPrincipal = true;
+    private Cache cache = new Cache();
+    
+    public String getSecret() {
+        return secret;
+    }
+    
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+    
+    public Long getExpiration() {
+        return expiration;
+    }
+    
+    public void setExpiration(Long expiration) {
+        this.expiration = expiration;
+    }
+    
+    public String getKeyId() {
+        return keyId;
+    }
+    
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+    
+    public Map<String, String> getPreviousKeys() {
+        return previousKeys;
+    }
+    
+    public void setPreviousKeys(Map<String, String> previousKeys) {
+        this.previousKeys = previousKeys;
+    }
+    
+    public boolean isStatelessPrincipal() {
+        return statelessPrincipal;
+    }
+    
+    public void setStatelessPrincipal(boolean statelessPrincipal) {
+        this.statelessPrincipal = statelessPrincipal;
+    }
+    
+    public Cache getCache() {
+        return cache;
+    }
+    
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+    
+    public static class Cache {
+        private long maxSize = 10000;
+        
+        public long getMaxSize() {
+            return maxSize;
+        }
+        
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+}
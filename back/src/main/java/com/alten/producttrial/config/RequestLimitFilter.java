@@ -0,0 +1,82 @@
+package com.alten.producttrial.config;
+
+import com.alten.producttrial.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borne le nombre de requêtes traitées simultanément. Avec les threads virtuels, Tomcat accepte autant de
+ * requêtes que de connexions : sans cette borne, l'excédent s'accumulerait dans la file d'attente du pool
+ * JDBC jusqu'à son délai d'expiration. Au-delà de la limite, la requête attend brièvement une place puis
+ * reçoit un 503 avec Retry-After.
+ */
+@Slf4j
+public class RequestLimitFilter extends OncePerRequestFilter {
+    
+    private final Semaphore permits;
+    private final long queueTimeoutNanos;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+    
+    public RequestLimitFilter(AppProperties.RequestLimit settings, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.permits = new Semaphore(settings.getMaxInFlight(), true);
+        this.queueTimeoutNanos = settings.getQueueTimeout().toNanos();
+        this.objectMapper = objectMapper;
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Requêtes refusées faute de place (limite de concurrence)")
+                .register(registry);
+        Gauge.builder("http.server.requests.in-flight", permits,
+                        semaphore -> settings.getMaxInFlight() - semaphore.availablePermits())
+                .register(registry);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            log.debug("Requête refusée, limite de concurrence atteinte: {} {}", request.getMethod(), request.getRequestURI());
+            reject(response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service temporairement surchargé, réessayez plus tard",
+                LocalDateTime.now()
+        ));
+    }
+}
@@ -0,0 +1,34 @@
+package com.alten.producttrial.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Exécution des requêtes et des tâches @Async. Avec spring.threads.virtual.enabled=true, Spring Boot fait
+ * tourner Tomcat et l'exécuteur applicationTaskExecutor (utilisé par @Async) sur des threads virtuels ;
+ * la concurrence n'est alors plus bornée par le pool de Tomcat mais par {@link RequestLimitFilter}
+ * et par la taille du pool JDBC.
+ */
+@Configuration
+@EnableAsync
+public class VirtualThreadConfig {
+    
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<RequestLimitFilter> requestLimitFilter(AppProperties appProperties,
+                                                                         ObjectMapper objectMapper,
+                                                                         MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestLimitFilter> registration = new FilterRegistrationBean<>(
+                new RequestLimitFilter(appProperties.getRequestLimit(), objectMapper, meterRegistry));
+        // Avant la sécurité : une requête refusée ne coûte ni vérification de token ni accès à la base
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -1,5 +1,6 @@
 package com.alten.producttrial.controller;
 
+import com.alten.producttrial.dto.CartBatchRequest;
 import com.alten.producttrial.dto.CartItemRequest;
 import com.alten.producttrial.dto.CartItemResponse;
 import com.alten.producttrial.security.SecurityUtils;
@@ -32,22 +33,33 @@ public class CartController {
     @GetMapping
     @Operation(summary = "Récupérer les articles du panier")
     public ResponseEntity<List<CartItemResponse>> getCartItems() {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return ResponseEntity.ok(cartService.getCartItems(email));
+        return ResponseEntity.ok(cartService.getCartItems(userId));
     }
     
     @PostMapping("/add")
     @Operation(summary = "Ajouter un produit au panier")
     public ResponseEntity<CartItemResponse> addToCart(
             @Valid @RequestBody CartItemRequest request) {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return ResponseEntity.ok(cartService.addToCart(email, request.getProductId(), request.getQuantity()));
+        return ResponseEntity.ok(cartService.addToCart(userId, request.getProductId(), request.getQuantity()));
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Appliquer plusieurs ajouts, modifications et suppressions au panier en une seule transaction")
+    public ResponseEntity<List<CartItemResponse>> applyBatch(
+            @Valid @RequestBody CartBatchRequest request) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(cartService.applyBatch(userId, request.getOperations()));
     }
     
     @PatchMapping("/{cartItemId}")
@@ -55,33 +67,33 @@ public class CartController {
     public ResponseEntity<CartItemResponse> updateCartItemQuantity(
             @PathVariable Long cartItemId,
             @RequestBody Map<String, Integer> requestBody) {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         Integer quantity = requestBody.get("quantity");
-        return ResponseEntity.ok(cartService.updateCartItemQuantity(email, cartItemId, quantity));
+        return ResponseEntity.ok(cartService.updateCartItemQuantity(userId, cartItemId, quantity));
     }
     
     @DeleteMapping("/{cartItemId}")
     @Operation(summary = "Supprimer un article du panier")
     public ResponseEntity<Void> removeFromCart(@PathVariable Long cartItemId) {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        cartService.removeFromCart(email, cartItemId);
+        cartService.removeFromCart(userId, cartItemId);
         return ResponseEntity.noContent().build();
     }
     
     @DeleteMapping
     @Operation(summary = "Vider le panier")
     public ResponseEntity<Void> clearCart() {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        cartService.clearCart(email);
+        cartService.clearCart(userId);
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,9 +1,21 @@
 package com.alten.producttrial.controller;
 
+import com.alten.producttrial.catalog.ProductResponseCache;
+import com.alten.producttrial.catalog.ProductResponseCache.CachedResponse;
+import com.alten.producttrial.catalog.SpillOutputStream;
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.dto.ProductFacets;
+import com.alten.producttrial.dto.ProductFilter;
+import com.alten.producttrial.dto.ProductImportReport;
 import com.alten.producttrial.dto.ProductRequest;
 import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.model.Product;
 import com.alten.producttrial.security.SecurityUtils;
+import com.alten.producttrial.service.ProductImportService;
 import com.alten.producttrial.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,16 +24,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/products")
@@ -31,17 +54,28 @@ public class ProductController {
     
     private final ProductService productService;
     private final SecurityUtils securityUtils;
+    private final ObjectMapper objectMapper;
+    private final ProductResponseCache responseCache;
+    private final ProductImportService productImportService;
+    private final long exportMaxSize;
     
-    public ProductController(ProductService productService, SecurityUtils securityUtils) {
+    public ProductController(ProductService productService, SecurityUtils securityUtils, ObjectMapper objectMapper,
+                             ProductResponseCache responseCache, ProductImportService productImportService,
+                             AppProperties appProperties) {
         this.productService = productService;
         this.securityUtils = securityUtils;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.productImportService = productImportService;
+        this.exportMaxSize = appProperties.getCache().getExportMaxSize().toBytes();
     }
     
     @GetMapping
     @Operation(
         summary = "Récupérer tous les produits",
         description = "Récupère la liste des produits avec pagination et filtrage optionnels. " +
-                     "Sans paramètres, retourne tous les produits sans pagination."
+                     "Sans paramètres, exporte tous les produits au fil de la lecture : tableau JSON, " +
+                     "ou une ligne JSON par produit avec Accept: application/x-ndjson."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des produits récupérée avec succès",
@@ -59,7 +93,25 @@ public class ProductController {
             @Parameter(description = "Filtrer par catégorie")
             @RequestParam(required = false) String category,
             @Parameter(description = "Recherche dans le nom, description ou code")
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @Parameter(description = "Prix minimum (inclus)")
+            @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Prix maximum (inclus)")
+            @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Note minimum (exclut les produits sans note)")
+            @RequestParam(required = false) Double minRating,
+            @Parameter(description = "Statut de stock")
+            @RequestParam(required = false) Product.InventoryStatus inventoryStatus,
+            @Parameter(description = "Vue des produits : 'summary' pour une liste allégée (sans description)", example = "summary")
+            @RequestParam(required = false) String view,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @Parameter(hidden = true)
+            ServletWebRequest webRequest) throws IOException {
+        boolean summary = "summary".equalsIgnoreCase(view);
+        ProductFilter filter = new ProductFilter(category, search, minPrice, maxPrice, minRating, inventoryStatus);
+        // Version lue avant la base : une réponse n'est jamais associée à une version plus récente que ses données
+        long version = responseCache.currentVersion();
         
         // Si page et size sont fournis, utiliser la pagination
         if (page != null && size != null) {
@@ -70,13 +122,181 @@ public class ProductController {
                 sort = sort.ascending();
             }
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<ProductResponse> products = productService.getAllProducts(pageable, category, search);
-            return ResponseEntity.ok(products);
+            String key = "list?page=" + page + "&size=" + size + "&sort=" + sort + "&filter=" + filter
+                + "&summary=" + summary;
+            return catalogResponse(webRequest, version, key, () -> summary
+                ? productService.getProductSummaries(pageable, filter)
+                : productService.getAllProducts(pageable, filter));
         }
         
-        // Sinon, retourner tous les produits sans pagination
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+        // Sinon, écrire tous les produits au fil de la lecture ; la réponse est alors déjà envoyée
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        String etag = responseCache.catalogEtag(version, (summary ? "summary" : "full") + (ndjson ? "-ndjson" : ""));
+        webRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (notModified(webRequest, etag)) {
+            return null;
+        }
+        exportProducts(summary, ndjson, version, etag, webRequest.getResponse());
+        return null;
+    }
+    
+    // Liste servie depuis le cache de réponses ; un client à jour reçoit un 304 sans lecture ni sérialisation
+    private ResponseEntity<byte[]> catalogResponse(ServletWebRequest webRequest, long version, String key,
+                                                   Supplier<?> loader) {
+        String etag = responseCache.catalogEtag(version, null);
+        if (notModified(webRequest, etag)) {
+            return null;
+        }
+        CachedResponse cached = responseCache.get(version, key, () -> new CachedResponse(etag, serialize(loader.get())));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.getBody());
+    }
+    
+    // Les clients doivent revalider à chaque lecture : l'ETag rend cette revalidation quasi gratuite
+    private static boolean notModified(ServletWebRequest webRequest, String etag) {
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return webRequest.checkNotModified(etag);
+    }
+    
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Export rendu en mémoire et mis en cache s'il tient sous app.cache.export-max-size : la transaction de lecture
+    // se termine avant l'envoi, un client lent ne retient ni connexion JDBC ni thread de lecture en base.
+    // Au-delà, la sortie bascule vers la réponse et la suite du catalogue est écrite au fil de la lecture
+    private void exportProducts(boolean summary, boolean ndjson, long version, String etag,
+                                HttpServletResponse response) throws IOException {
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        
+        String key = "export?summary=" + summary + "&ndjson=" + ndjson;
+        CachedResponse cached = responseCache.getIfPresent(version, key);
+        if (cached == null) {
+            SpillOutputStream output = new SpillOutputStream(exportMaxSize, response.getOutputStream());
+            writeProducts(summary, ndjson, output);
+            if (output.isSpilled()) {
+                return;
+            }
+            cached = new CachedResponse(etag, output.toByteArray());
+            responseCache.put(version, key, cached);
+        }
+        response.setContentLength(cached.getBody().length);
+        response.getOutputStream().write(cached.getBody());
+    }
+    
+    // Sortie en flux : aucune liste intermédiaire, chaque produit est sérialisé dès sa lecture
+    private void writeProducts(boolean summary, boolean ndjson, OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            Consumer<Object> writer = product -> {
+                try {
+                    generator.writeObject(product);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            if (summary) {
+                productService.exportProductSummaries(writer);
+            } else {
+                productService.exportProducts(writer);
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+    
+    @GetMapping("/seek")
+    @Operation(
+        summary = "Parcourir les produits par curseur",
+        description = "Pagination par clé : chaque page renvoie un curseur opaque à passer pour obtenir la suite. " +
+                     "Le temps de réponse ne dépend pas de la profondeur de la page ; le total n'est calculé " +
+                     "que si withTotal=true. Tri possible sur id, code, name ou price."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page de produits récupérée avec succès"),
+        @ApiResponse(responseCode = "400", description = "Curseur ou champ de tri invalide")
+    })
+    public ResponseEntity<byte[]> seekProducts(
+            @Parameter(description = "Taille de la page", example = "10")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Champ de tri (id, code, name ou price)", example = "name")
+            @RequestParam(required = false) String sortBy,
+            @Parameter(description = "Direction du tri (ASC ou DESC)", example = "ASC")
+            @RequestParam(required = false) String sortDir,
+            @Parameter(description = "Filtrer par catégorie")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Recherche dans le nom, description ou code")
+            @RequestParam(required = false) String search,
+            @Parameter(description = "Prix minimum (inclus)")
+            @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Prix maximum (inclus)")
+            @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Note minimum (exclut les produits sans note)")
+            @RequestParam(required = false) Double minRating,
+            @Parameter(description = "Statut de stock")
+            @RequestParam(required = false) Product.InventoryStatus inventoryStatus,
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent pour la première page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Calculer le nombre total de produits correspondants")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Vue des produits : 'summary' pour une liste allégée (sans description)", example = "summary")
+            @RequestParam(required = false) String view,
+            @Parameter(hidden = true)
+            ServletWebRequest webRequest) {
+        boolean summary = "summary".equalsIgnoreCase(view);
+        ProductFilter filter = new ProductFilter(category, search, minPrice, maxPrice, minRating, inventoryStatus);
+        long version = responseCache.currentVersion();
+        String key = "seek?size=" + size + "&sortBy=" + sortBy + "&sortDir=" + sortDir + "&filter=" + filter
+            + "&cursor=" + cursor + "&withTotal=" + withTotal + "&summary=" + summary;
+        return catalogResponse(webRequest, version, key, () -> summary
+            ? productService.seekProductSummaries(size, sortBy, sortDir, filter, cursor, withTotal)
+            : productService.seekProducts(size, sortBy, sortDir, filter, cursor, withTotal));
+    }
+    
+    @GetMapping("/facets")
+    @Operation(
+        summary = "Compter les produits par facette",
+        description = "Nombre de produits par catégorie, par statut de stock, par tranche de prix et par tranche " +
+                     "de note, parmi ceux qui correspondent aux filtres category et search. " +
+                     "Calculé à partir d'un agrégat en mémoire tenu à jour à chaque écriture."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Facettes calculées avec succès",
+            content = @Content(schema = @Schema(implementation = ProductFacets.class)))
+    })
+    public ResponseEntity<byte[]> getFacets(
+            @Parameter(description = "Filtrer par catégorie")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Recherche dans le nom, description ou code")
+            @RequestParam(required = false) String search,
+            @Parameter(hidden = true)
+            ServletWebRequest webRequest) {
+        long version = responseCache.currentVersion();
+        String key = "facets?category=" + category + "&search=" + search;
+        return catalogResponse(webRequest, version, key, () -> productService.getFacets(category, search));
+    }
+    
+    @GetMapping("/categories")
+    @Operation(
+        summary = "Lister les catégories",
+        description = "Libellés des catégories connues, triés sans tenir compte de la casse. " +
+                     "Servis depuis le dictionnaire en mémoire, sans accès à la base."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Liste des catégories récupérée avec succès")
+    })
+    public ResponseEntity<List<String>> getCategories() {
+        return ResponseEntity.ok(productService.getCategories());
     }
     
     @GetMapping("/{id}")
@@ -86,11 +306,20 @@ public class ProductController {
             content = @Content(schema = @Schema(implementation = ProductResponse.class))),
         @ApiResponse(responseCode = "404", description = "Produit non trouvé")
     })
-    public ResponseEntity<ProductResponse> getProductById(
+    public ResponseEntity<byte[]> getProductById(
             @Parameter(description = "ID du produit", required = true, example = "1")
-            @PathVariable Long id) {
-        ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+            @PathVariable Long id,
+            @Parameter(hidden = true)
+            ServletWebRequest webRequest) {
+        long version = responseCache.currentVersion();
+        CachedResponse cached = responseCache.get(version, "product/" + id, () -> {
+            ProductResponse product = productService.getProductById(id);
+            return new CachedResponse(responseCache.productEtag(product.getId(), product.getUpdatedAt()), serialize(product));
+        });
+        if (notModified(webRequest, cached.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.getBody());
     }
     
     @PostMapping
@@ -111,6 +340,32 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(product);
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "Importer des produits en masse (admin uniquement)",
+        description = "Crée ou met à jour les produits par code depuis un fichier CSV avec en-tête (colonnes nommées "
+            + "comme les champs d'un produit) ou NDJSON (un produit JSON par ligne). Les lignes invalides sont "
+            + "rejetées et détaillées dans le rapport, les autres sont écrites par lots."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rapport d'import",
+            content = @Content(schema = @Schema(implementation = ProductImportReport.class))),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Admin uniquement")
+    })
+    public ResponseEntity<ProductImportReport> importProducts(
+            @Parameter(hidden = true)
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @Parameter(hidden = true)
+            HttpServletRequest request) throws IOException {
+        if (!securityUtils.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        ProductImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+            ? ProductImportService.Format.NDJSON
+            : ProductImportService.Format.CSV;
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format));
+    }
+    
     @PatchMapping("/{id}")
     @Operation(summary = "Modifier un produit (admin uniquement)")
     @ApiResponses(value = {
@@ -31,32 +31,32 @@ public class WishlistController {
     @GetMapping
     @Operation(summary = "Récupérer les articles de la liste d'envie")
     public ResponseEntity<List<WishlistItemResponse>> getWishlistItems() {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return ResponseEntity.ok(wishlistService.getWishlistItems(email));
+        return ResponseEntity.ok(wishlistService.getWishlistItems(userId));
     }
     
     @PostMapping("/add")
     @Operation(summary = "Ajouter un produit à la liste d'envie")
     public ResponseEntity<WishlistItemResponse> addToWishlist(
             @Valid @RequestBody WishlistItemRequest request) {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return ResponseEntity.ok(wishlistService.addToWishlist(email, request.getProductId()));
+        return ResponseEntity.ok(wishlistService.addToWishlist(userId, request.getProductId()));
     }
     
     @DeleteMapping("/{wishlistItemId}")
     @Operation(summary = "Supprimer un article de la liste d'envie")
     public ResponseEntity<Void> removeFromWishlist(@PathVariable Long wishlistItemId) {
-        String email = securityUtils.getCurrentUserEmail();
-        if (email == null) {
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        wishlistService.removeFromWishlist(email, wishlistItemId);
+        wishlistService.removeFromWishlist(userId, wishlistItemId);
         return ResponseEntity.noContent().build();
     }
 }
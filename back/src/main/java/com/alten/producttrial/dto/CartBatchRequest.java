@@ -0,0 +1,19 @@
+package com.alten.producttrial.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+    @NotEmpty(message = "Au moins une opération est requise")
+    @Size(max = 200, message = "Un lot ne peut pas contenir plus de 200 opérations")
+    private List<@Valid CartOperation> operations;
+}
@@ -0,0 +1,30 @@
+package com.alten.producttrial.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Modification unitaire d'un lot : l'article est désigné par son produit, unique dans le panier d'un utilisateur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+    
+    public enum Type {
+        ADD, UPDATE, REMOVE
+    }
+    
+    @NotNull(message = "Le type d'opération est obligatoire")
+    private Type type;
+    
+    @NotNull(message = "L'ID du produit est obligatoire")
+    private Long productId;
+    
+    // Obligatoire pour ADD (quantité ajoutée) et UPDATE (nouvelle quantité), ignorée pour REMOVE
+    @Min(value = 1, message = "La quantité doit être supérieure à 0")
+    private Integer quantity;
+}
@@ -0,0 +1,21 @@
+package com.alten.producttrial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page obtenue par pagination par clé : {@code nextCursor} est à renvoyer tel quel pour obtenir la suite,
+ * il vaut null sur la dernière page. {@code totalElements} n'est renseigné que sur demande.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,35 @@
+package com.alten.producttrial.dto;
+
+import com.alten.producttrial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nombre de produits par valeur de filtre, pour les produits correspondant à la catégorie et à la recherche
+ * demandées. Les tranches de prix et de note sont toutes présentes, dans l'ordre, même vides.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+    private long total;
+    private Map<String, Long> categories;
+    private Map<Product.InventoryStatus, Long> inventoryStatuses;
+    private List<Bucket> priceRanges;
+    // Produits sans note non comptés
+    private List<Bucket> ratings;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        // Borne basse incluse, null pour la première tranche ; borne haute exclue, null pour la dernière
+        private Double from;
+        private Double to;
+        private long count;
+    }
+}
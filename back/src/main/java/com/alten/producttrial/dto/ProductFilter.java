@@ -0,0 +1,22 @@
+package com.alten.producttrial.dto;
+
+import com.alten.producttrial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Critères des listes de produits ; un critère null n'est pas appliqué. Les bornes de prix sont incluses,
+ * un filtre sur la note exclut les produits sans note.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+    private String category;
+    private String search;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minRating;
+    private Product.InventoryStatus inventoryStatus;
+}
@@ -0,0 +1,31 @@
+package com.alten.producttrial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ProductImportReport {
+    private int totalRows;
+    private int created;
+    private int updated;
+    private int rejected;
+    private long durationMs;
+    // Détail limité aux premières lignes rejetées ; errorsTruncated signale qu'il en existe d'autres
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // Numéro de l'enregistrement dans le fichier, à partir de 1 (hors ligne d'en-tête CSV)
+        private int row;
+        private String code;
+        private String message;
+    }
+}
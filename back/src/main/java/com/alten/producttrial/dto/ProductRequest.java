@@ -22,6 +22,7 @@ public class ProductRequest {
     @Size(max = 2000, message = "La description ne peut pas dépasser 2000 caractères")
     private String description;
     
+    @Size(max = 255, message = "L'URL de l'image ne peut pas dépasser 255 caractères")
     private String image;
     
     @NotBlank(message = "La catégorie est obligatoire")
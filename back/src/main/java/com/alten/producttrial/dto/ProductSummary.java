@@ -0,0 +1,22 @@
+package com.alten.producttrial.dto;
+
+import com.alten.producttrial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vue allégée d'un produit pour les listes : sans description ni champs de gestion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+    private Long id;
+    private String code;
+    private String name;
+    private Double price;
+    private String image;
+    private Product.InventoryStatus inventoryStatus;
+    private Double rating;
+}
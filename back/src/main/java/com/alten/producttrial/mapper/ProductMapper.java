@@ -2,6 +2,7 @@ package com.alten.producttrial.mapper;
 
 import com.alten.producttrial.dto.ProductRequest;
 import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.dto.ProductSummary;
 import com.alten.producttrial.model.Product;
 import org.springframework.stereotype.Component;
 
@@ -53,6 +54,22 @@ public class ProductMapper {
         return response;
     }
     
+    public ProductSummary toSummary(Product product) {
+        if (product == null) {
+            return null;
+        }
+        
+        return new ProductSummary(
+            product.getId(),
+            product.getCode(),
+            product.getName(),
+            product.getPrice(),
+            product.getImage(),
+            product.getInventoryStatus(),
+            product.getRating()
+        );
+    }
+    
     public void updateEntityFromRequest(Product product, ProductRequest request) {
         if (product == null || request == null) {
             return;
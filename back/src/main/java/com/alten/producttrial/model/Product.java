@@ -1,20 +1,30 @@
 package com.alten.producttrial.model;
 
+import com.alten.producttrial.catalog.CategoryConverter;
+import com.alten.producttrial.catalog.ProductCategoryListener;
+import com.alten.producttrial.catalog.ProductChangeListener;
+import com.alten.producttrial.config.CacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.Instant;
 
 @Entity
 @Table(name = "products")
+@EntityListeners({ProductCategoryListener.class, ProductChangeListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PRODUCT_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -28,7 +38,9 @@ public class Product {
     
     private String image;
     
-    @Column(nullable = false)
+    // Libellé côté Java, clé du dictionnaire des catégories en base
+    @Convert(converter = CategoryConverter.class)
+    @Column(name = "category_id", nullable = false)
     private String category;
     
     @Column(nullable = false)
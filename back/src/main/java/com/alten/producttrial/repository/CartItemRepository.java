@@ -1,17 +1,61 @@
 package com.alten.producttrial.repository;
 
 import com.alten.producttrial.model.CartItem;
-import com.alten.producttrial.model.User;
-import com.alten.producttrial.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
-    List<CartItem> findByUser(User user);
-    Optional<CartItem> findByUserAndProduct(User user, Product product);
-    void deleteByUser(User user);
+    // Produit chargé dans la même requête : le mapping en réponse n'émet pas un SELECT par ligne
+    @EntityGraph(attributePaths = "product")
+    List<CartItem> findByUserId(Long userId);
+    
+    /**
+     * Articles du panier verrouillés en écriture jusqu'à la fin de la transaction : un ajout concurrent
+     * attend pour incrémenter la quantité validée au lieu d'être écrasé.
+     * Sans jointure, le verrou ne porte que sur les lignes du panier, pas sur les produits.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CartItem c WHERE c.user.id = :userId ORDER BY c.id")
+    List<CartItem> findByUserIdForUpdate(@Param("userId") Long userId);
+    
+    @EntityGraph(attributePaths = "product")
+    Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
+    
+    /**
+     * Ajoute une quantité à la ligne (utilisateur, produit), ou la crée, en une seule instruction.
+     *
+     * Deux premiers ajouts simultanés peuvent encore se heurter à la contrainte d'unicité ; l'appelant
+     * rejoue alors l'instruction, qui trouve la ligne créée par l'autre transaction.
+     * L'identifiant d'une ligne créée est tiré directement de la séquence, sans chevaucher les blocs
+     * réservés par Hibernate (optimiseur pooled-lo).
+     * L'espace de synchronisation déclaré limite l'invalidation du cache de second niveau à cette table.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cart_items"))
+    @Query(value = "MERGE INTO cart_items c "
+            + "USING (SELECT CAST(:userId AS BIGINT) AS user_id, CAST(:productId AS BIGINT) AS product_id, "
+            + "CAST(:quantity AS INTEGER) AS quantity) s "
+            + "ON c.user_id = s.user_id AND c.product_id = s.product_id "
+            + "WHEN MATCHED THEN UPDATE SET quantity = c.quantity + s.quantity "
+            + "WHEN NOT MATCHED THEN INSERT (id, user_id, product_id, quantity) "
+            + "VALUES (NEXT VALUE FOR cart_item_seq, s.user_id, s.product_id, s.quantity)",
+            nativeQuery = true)
+    int upsertQuantity(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") Integer quantity);
+    
+    void deleteByUserId(Long userId);
 }
@@ -0,0 +1,35 @@
+package com.alten.producttrial.repository;
+
+import com.alten.producttrial.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Lectures en projection : les lignes sont construites directement dans le DTO demandé,
+ * sans entités managées dans le contexte de persistance.
+ */
+public interface ProductProjectionRepository {
+    
+    /**
+     * @param type ProductResponse ou ProductSummary
+     */
+    <T> Page<T> findAllAs(Class<T> type, Specification<Product> spec, Pageable pageable);
+    
+    /**
+     * Lit au plus {@code limit} produits situés strictement après la position (lastKey, lastId) dans l'ordre
+     * (sortBy, id), sans OFFSET ni comptage. La première page est obtenue avec lastId à null.
+     *
+     * @param sortBy attribut de tri non nul, comparable
+     */
+    <T> List<T> findSeekAs(Class<T> type, Specification<Product> spec, String sortBy, Sort.Direction direction,
+                           Object lastKey, Long lastId, int limit);
+    
+    /**
+     * Identifiants des produits correspondant au filtre, sans autre colonne.
+     */
+    List<Long> findIds(Specification<Product> spec);
+}
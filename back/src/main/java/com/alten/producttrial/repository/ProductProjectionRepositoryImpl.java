@@ -0,0 +1,152 @@
+package com.alten.producttrial.repository;
+
+import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.dto.ProductSummary;
+import com.alten.producttrial.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+    
+    // Attributs sélectionnés, dans l'ordre des paramètres du constructeur de chaque DTO
+    private static final Map<Class<?>, String[]> ATTRIBUTES = Map.of(
+            ProductResponse.class, new String[]{"id", "code", "name", "description", "image", "category", "price",
+                    "quantity", "internalReference", "shellId", "inventoryStatus", "rating", "createdAt", "updatedAt"},
+            ProductSummary.class, new String[]{"id", "code", "name", "price", "image", "inventoryStatus", "rating"}
+    );
+    
+    private final EntityManager entityManager;
+    
+    ProductProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public <T> Page<T> findAllAs(Class<T> type, Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<Product> root = query.from(Product.class);
+        query.select(construct(cb, root, type));
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(pageable.getSort(), root, cb));
+        }
+        
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        // Le comptage n'est exécuté que si la page ne suffit pas à déterminer le total
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(spec));
+    }
+    
+    @Override
+    public <T> List<T> findSeekAs(Class<T> type, Specification<Product> spec, String sortBy, Sort.Direction direction,
+                                  Object lastKey, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<Product> root = query.from(Product.class);
+        query.select(construct(cb, root, type));
+        
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (lastId != null) {
+            predicates.add(after(cb, root, sortBy, direction, lastKey, lastId));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        
+        // L'id départage les clés égales : l'ordre est total et la reprise ne saute ni ne répète de ligne
+        Path<?> key = root.get(sortBy);
+        Path<?> id = root.get("id");
+        query.orderBy(direction.isAscending()
+                ? List.of(cb.asc(key), cb.asc(id))
+                : List.of(cb.desc(key), cb.desc(id)));
+        
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+    
+    @Override
+    public List<Long> findIds(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(root.get("id"));
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+    
+    // (key, id) > (lastKey, lastId) en ordre croissant, < en ordre décroissant, écrit sans constructeur de ligne
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate after(CriteriaBuilder cb, Root<Product> root, String sortBy, Sort.Direction direction,
+                                   Object lastKey, Long lastId) {
+        Expression<Long> id = root.get("id");
+        boolean ascending = direction.isAscending();
+        Predicate idAfter = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        if ("id".equals(sortBy)) {
+            return idAfter;
+        }
+        Expression<Comparable> key = root.get(sortBy);
+        Comparable value = (Comparable) lastKey;
+        return cb.or(
+                ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value),
+                cb.and(cb.equal(key, value), idAfter)
+        );
+    }
+    
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+    
+    private static <T> Selection<T> construct(CriteriaBuilder cb, Root<Product> root, Class<T> type) {
+        String[] attributes = ATTRIBUTES.get(type);
+        if (attributes == null) {
+            throw new IllegalArgumentException("Projection produit non supportée: " + type.getName());
+        }
+        Selection<?>[] selections = new Selection<?>[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            selections[i] = root.get(attributes[i]);
+        }
+        return cb.construct(type, selections);
+    }
+    
+    private static Predicate toPredicate(Specification<Product> spec, Root<Product> root,
+                                         CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return spec == null ? null : spec.toPredicate(root, query, cb);
+    }
+}
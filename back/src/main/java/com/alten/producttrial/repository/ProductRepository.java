@@ -1,15 +1,42 @@
 package com.alten.producttrial.repository;
 
 import com.alten.producttrial.model.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductProjectionRepository {
+    // Résultats mis en cache (identifiants) : les entités sont ensuite servies par le cache de second niveau
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Product> findByCode(String code);
+    
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Product> findByCategory(String category);
+    
+    List<Product> findByCodeIn(Collection<String> codes);
+    
+    /**
+     * Parcourt tout le catalogue par lots de lignes lus au fil de l'eau.
+     * Le flux doit être consommé dans une transaction et fermé par l'appelant.
+     */
+    @Query("select p from Product p order by p.id")
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Product> streamAllByOrderById();
 }
@@ -1,8 +1,7 @@
 package com.alten.producttrial.repository;
 
 import com.alten.producttrial.model.WishlistItem;
-import com.alten.producttrial.model.User;
-import com.alten.producttrial.model.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,7 +10,11 @@ import java.util.Optional;
 
 @Repository
 public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long> {
-    List<WishlistItem> findByUser(User user);
-    Optional<WishlistItem> findByUserAndProduct(User user, Product product);
-    void deleteByUser(User user);
+    // Produit chargé dans la même requête : le mapping en réponse n'émet pas un SELECT par ligne
+    @EntityGraph(attributePaths = "product")
+    List<WishlistItem> findByUserId(Long userId);
+    
+    @EntityGraph(attributePaths = "product")
+    Optional<WishlistItem> findByUserIdAndProductId(Long userId, Long productId);
+    void deleteByUserId(Long userId);
 }
@@ -0,0 +1,108 @@
+package com.alten.producttrial.security;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécute le hachage et la vérification des mots de passe sur un pool dédié et borné. Une rafale de connexions
+ * n'occupe au plus que ce pool : le reste du trafic garde les processeurs, et les demandes au-delà de la file
+ * d'attente sont refusées immédiatement ({@link ServiceOverloadedException}) au lieu de s'accumuler.
+ *
+ * Métriques : password.hashing (durée du calcul, par opération), password.hashing.queue.wait (attente avant
+ * exécution), password.hashing.rejected et password.hashing.queue.size.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+    
+    public BoundedPasswordEncoder(PasswordEncoder delegate, AppProperties.PasswordHashing settings,
+                                  MeterRegistry registry) {
+        this.delegate = delegate;
+        int threads = settings.getThreads() > 0 ? settings.getThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        this.encodeTimer = Timer.builder("password.hashing").tag("operation", "encode").register(registry);
+        this.matchesTimer = Timer.builder("password.hashing").tag("operation", "matches").register(registry);
+        this.queueWaitTimer = Timer.builder("password.hashing.queue.wait").register(registry);
+        this.rejected = Counter.builder("password.hashing.rejected").register(registry);
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size()).register(registry);
+        log.info("Hachage des mots de passe : {} thread(s), file de {} demandes", threads, settings.getQueueCapacity());
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    private <T> T execute(Timer timer, Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Hachage de mot de passe refusé : file d'attente pleine");
+            throw new ServiceOverloadedException("Too many authentication requests, retry later");
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
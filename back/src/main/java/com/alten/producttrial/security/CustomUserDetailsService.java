@@ -1,32 +1,130 @@
 package com.alten.producttrial.security;
 
+import com.alten.producttrial.config.AppProperties;
 import com.alten.producttrial.model.User;
 import com.alten.producttrial.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Chargement des utilisateurs par email, derrière deux caches bornés : les comptes trouvés (durée de vie courte)
+ * et les emails inconnus, pour qu'une rafale de tentatives sur des comptes inexistants n'atteigne pas la base.
+ *
+ * Toute écriture sur un utilisateur évince ses entrées immédiatement puis à nouveau à la fin de la transaction :
+ * un compte modifié, supprimé ou tout juste créé n'est jamais servi depuis un état antérieur.
+ */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, MeterBinder {
     
     private final UserRepository userRepository;
+    private final AppProperties appProperties;
+    private final Cache<String, UserPrincipal> users;
+    private final Cache<String, Boolean> unknownEmails;
+    // Email de l'entrée en cache de chaque utilisateur : retrouve l'ancienne adresse sans parcourir le cache
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
     
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, AppProperties appProperties) {
         this.userRepository = userRepository;
+        this.appProperties = appProperties;
+        AppProperties.Cache settings = appProperties.getCache();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(settings.getUserMaxSize())
+                .expireAfterWrite(settings.getUserTtl())
+                // Synchrone et limité aux évictions (taille, expiration) : les invalidations explicites tiennent l'index à jour
+                .evictionListener((String email, UserPrincipal principal, RemovalCause cause) -> {
+                    if (principal != null) {
+                        emailsById.remove(principal.getId(), email);
+                    }
+                })
+                .recordStats()
+                .build();
+        this.unknownEmails = Caffeine.newBuilder()
+                .maximumSize(settings.getUnknownUserMaxSize())
+                .expireAfterWrite(settings.getUnknownUserTtl())
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+        CaffeineCacheMetrics.monitor(registry, unknownEmails, "users.unknown");
     }
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        if (unknownEmails.getIfPresent(email) != null) {
+            throw notFound(email);
+        }
+        UserPrincipal cached = users.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
         
-        return new org.springframework.security.core.userdetails.User(
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            unknownEmails.put(email, Boolean.TRUE);
+            throw notFound(email);
+        }
+        UserPrincipal principal = new UserPrincipal(
+                user.getId(),
                 user.getEmail(),
                 user.getPassword(),
-                new ArrayList<>()
+                rolesOf(user.getEmail())
         );
+        users.put(email, principal);
+        emailsById.put(principal.getId(), email);
+        return principal;
+    }
+    
+    private static UsernameNotFoundException notFound(String email) {
+        return new UsernameNotFoundException("User not found with email: " + email);
+    }
+    
+    private List<String> rolesOf(String email) {
+        if (email.equals(appProperties.getAdmin().getEmail())) {
+            return List.of(UserPrincipal.ROLE_USER, UserPrincipal.ROLE_ADMIN);
+        }
+        return List.of(UserPrincipal.ROLE_USER);
+    }
+    
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        Long id = event.getUser().getId();
+        String email = event.getUser().getEmail();
+        invalidate(id, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id, email);
+                }
+            });
+        }
+    }
+    
+    // Par identifiant aussi : après un changement d'email, l'entrée de l'ancienne adresse doit disparaître
+    private void invalidate(Long id, String email) {
+        unknownEmails.invalidate(email);
+        users.invalidate(email);
+        String previousEmail = emailsById.remove(id);
+        if (previousEmail != null) {
+            users.invalidate(previousEmail);
+        }
     }
 }
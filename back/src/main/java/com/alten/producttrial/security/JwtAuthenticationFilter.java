@@ -1,5 +1,6 @@
 package com.alten.producttrial.security;
 
+import com.alten.producttrial.config.JwtProperties;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,10 +20,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final JwtProperties jwtProperties;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
     
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   JwtProperties jwtProperties, TokenRevocationRegistry tokenRevocationRegistry) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.jwtProperties = jwtProperties;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
     
     @Override
@@ -44,9 +50,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(email);
+            UserDetails userDetails = loadUserDetails(jwt, email);
             
-            if (this.jwtUtil.validateToken(jwt, email)) {
+            if (!isRevoked(userDetails, jwt) && this.jwtUtil.validateToken(jwt, email)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -55,4 +61,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
+    
+    // En mode sans état, les tokens portant l'identifiant utilisateur n'entraînent aucun accès à la base
+    private UserDetails loadUserDetails(String jwt, String email) {
+        if (jwtProperties.isStatelessPrincipal()) {
+            UserPrincipal principal = jwtUtil.extractPrincipal(jwt);
+            if (principal != null) {
+                return principal;
+            }
+        }
+        return this.userDetailsService.loadUserByUsername(email);
+    }
+    
+    private boolean isRevoked(UserDetails userDetails, String jwt) {
+        return userDetails instanceof UserPrincipal principal
+                && tokenRevocationRegistry.isRevoked(principal.getId(), jwtUtil.extractIssuedAt(jwt));
+    }
 }
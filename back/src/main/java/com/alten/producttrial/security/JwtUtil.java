@@ -1,31 +1,119 @@
 package com.alten.producttrial.security;
 
+import com.alten.producttrial.config.JwtProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.InvalidKeyException;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
     
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
     
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final JwtProperties jwtProperties;
     
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Clé de signature et parser construits une seule fois : thread-safe, réutilisés à chaque requête
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // Tokens déjà vérifiés, indexés par empreinte SHA-256 et évincés à leur date d'expiration
+    private Cache<String, Claims> verifiedTokens;
+    
+    public JwtUtil(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+    }
+    
+    @PostConstruct
+    void init() {
+        signingKey = hmacKey(jwtProperties.getSecret());
+        
+        Map<String, SecretKey> keys = new HashMap<>();
+        jwtProperties.getPreviousKeys().forEach((keyId, secret) -> keys.put(keyId, hmacKey(secret)));
+        keys.put(jwtProperties.getKeyId(), signingKey);
+        Map<String, SecretKey> verificationKeys = Map.copyOf(keys);
+        
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        // Les tokens émis sans kid (avant la rotation) sont vérifiés avec la clé courante
+                        String keyId = header.getKeyId();
+                        if (keyId == null) {
+                            return signingKey;
+                        }
+                        SecretKey key = verificationKeys.get(keyId);
+                        if (key == null) {
+                            throw new InvalidKeyException("Clé de signature inconnue: " + keyId);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+        
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getCache().getMaxSize())
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+    
+    private static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+    }
+    
+    /**
+     * Statistiques du cache de tokens vérifiés (hits, misses, évictions).
+     */
+    public CacheStats getCacheStats() {
+        return verifiedTokens.stats();
     }
     
     public String extractEmail(String token) {
@@ -36,17 +124,51 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
     
+    public Date extractIssuedAt(String token) {
+        return extractClaim(token, Claims::getIssuedAt);
+    }
+    
+    /**
+     * Reconstruit le principal à partir des claims d'un token vérifié, sans accès à la base.
+     *
+     * @return le principal, ou null si le token ne porte pas l'identifiant utilisateur (tokens historiques)
+     */
+    public UserPrincipal extractPrincipal(String token) {
+        Claims claims = extractAllClaims(token);
+        Object userId = claims.get(USER_ID_CLAIM);
+        if (!(userId instanceof Number)) {
+            return null;
+        }
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new UserPrincipal(
+                ((Number) userId).longValue(),
+                claims.getSubject(),
+                null,
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList()
+        );
+    }
+    
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
     
+    // La signature n'est vérifiée qu'au premier passage du token ; un token invalide lève une exception et n'est pas mis en cache
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verifiedTokens.get(hash(token), key -> parseClaims(token));
+    }
+    
+    Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
     }
     
     private Boolean isTokenExpired(String token) {
@@ -58,13 +180,21 @@ public class JwtUtil {
         return createToken(claims, email);
     }
     
+    public String generateToken(UserPrincipal principal) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, principal.getId());
+        claims.put(ROLES_CLAIM, principal.getRoles());
+        return createToken(claims, principal.getUsername());
+    }
+    
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .expiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration()))
+                .header().keyId(jwtProperties.getKeyId()).and()
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
     
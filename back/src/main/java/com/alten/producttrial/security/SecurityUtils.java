@@ -28,6 +28,21 @@ public class SecurityUtils {
         return null;
     }
     
+    /**
+     * Extrait l'identifiant de l'utilisateur authentifié, porté par le principal construit lors du filtrage JWT.
+     * Évite aux services de relire l'utilisateur en base à partir de son email.
+     * 
+     * @return l'identifiant de l'utilisateur authentifié, ou null si non authentifié
+     */
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() 
+            && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+    
     /**
      * Vérifie si l'utilisateur actuel est l'administrateur.
      * Utilisé par @PreAuthorize pour la sécurité au niveau méthode.
@@ -0,0 +1,68 @@
+package com.alten.producttrial.security;
+
+import com.alten.producttrial.config.JwtProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Liste de révocation des tokens par utilisateur.
+ *
+ * En mode principal sans état, le filtre JWT ne relit plus l'utilisateur en base : désactiver ou supprimer
+ * un compte doit donc passer par {@link #revokeUser(Long)}, qui invalide tous les tokens émis jusque-là.
+ * Toute modification ou suppression d'un utilisateur le révoque, à l'écriture puis à nouveau à la fin de la
+ * transaction : les rôles et l'existence du compte portés par un token ne survivent pas à un changement.
+ * Une révocation est oubliée après la durée de validité des tokens : tous ceux émis avant elle ont alors expiré.
+ */
+@Component
+public class TokenRevocationRegistry {
+    
+    // Identifiant utilisateur -> instant de révocation (ms) ; sans taille maximale, une éviction lèverait la révocation
+    private final Cache<Long, Long> revokedAt;
+    
+    public TokenRevocationRegistry(JwtProperties jwtProperties) {
+        this.revokedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtProperties.getExpiration()))
+                .build();
+    }
+    
+    public void revokeUser(Long userId) {
+        revokedAt.put(userId, System.currentTimeMillis());
+    }
+    
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.CREATED) {
+            return;
+        }
+        Long id = event.getUser().getId();
+        revokeUser(id);
+        // Un token émis pendant la transaction porte encore l'état antérieur ; un rollback ne coûte qu'une reconnexion
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    revokeUser(id);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Un token est révoqué s'il a été émis avant la révocation de son utilisateur.
+     * La date d'émission d'un JWT étant à la seconde, un token émis dans la même seconde est aussi rejeté.
+     */
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long revocation = revokedAt.getIfPresent(userId);
+        if (revocation == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() <= revocation;
+    }
+}
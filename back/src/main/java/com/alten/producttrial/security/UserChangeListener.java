@@ -0,0 +1,35 @@
+package com.alten.producttrial.security;
+
+import com.alten.producttrial.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Listener JPA de l'entité {@link User}, instancié par Hibernate via le conteneur Spring.
+ * Traduit les callbacks de cycle de vie en {@link UserChangedEvent}.
+ */
+public class UserChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public UserChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    void onCreate(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.CREATED, user));
+    }
+    
+    @PostUpdate
+    void onUpdate(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, user));
+    }
+    
+    @PostRemove
+    void onRemove(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, user));
+    }
+}
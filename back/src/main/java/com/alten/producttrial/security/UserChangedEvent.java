@@ -0,0 +1,21 @@
+package com.alten.producttrial.security;
+
+import com.alten.producttrial.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié à chaque écriture JPA sur un utilisateur (création, modification, suppression).
+ * Les caches d'authentification s'y abonnent pour ne jamais servir un compte périmé.
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    private final Type type;
+    private final User user;
+}
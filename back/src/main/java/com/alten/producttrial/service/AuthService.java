@@ -7,13 +7,13 @@ import com.alten.producttrial.exception.DuplicateResourceException;
 import com.alten.producttrial.model.User;
 import com.alten.producttrial.repository.UserRepository;
 import com.alten.producttrial.security.JwtUtil;
+import com.alten.producttrial.security.UserPrincipal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
@@ -34,7 +34,7 @@ public class AuthService {
         this.authenticationManager = authenticationManager;
     }
     
-    @Transactional
+    // Hors transaction : le hachage, qui peut attendre une place dans le pool dédié, ne retient pas de connexion JDBC
     public User register(RegisterRequest request) {
         log.info("Tentative d'enregistrement pour l'email: {}", request.getEmail());
         
@@ -63,7 +63,10 @@ public class AuthService {
             new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
         
-        String token = jwtUtil.generateToken(request.getEmail());
+        // Le token embarque l'identifiant et les rôles pour que les requêtes suivantes n'aient pas à relire l'utilisateur
+        String token = authentication.getPrincipal() instanceof UserPrincipal principal
+            ? jwtUtil.generateToken(principal)
+            : jwtUtil.generateToken(request.getEmail());
         return new LoginResponse(token);
     }
 }
@@ -1,6 +1,8 @@
 package com.alten.producttrial.service;
 
 import com.alten.producttrial.dto.CartItemResponse;
+import com.alten.producttrial.dto.CartOperation;
+import com.alten.producttrial.exception.InvalidRequestException;
 import com.alten.producttrial.exception.ResourceNotFoundException;
 import com.alten.producttrial.exception.UnauthorizedAccessException;
 import com.alten.producttrial.mapper.CartItemMapper;
@@ -10,74 +12,195 @@ import com.alten.producttrial.model.User;
 import com.alten.producttrial.repository.CartItemRepository;
 import com.alten.producttrial.repository.ProductRepository;
 import com.alten.producttrial.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CartService {
     
+    private static final String UNIQUE_USER_PRODUCT = "uk_cart_items_user_product";
+    private static final String PRODUCT_FOREIGN_KEY = "fk_cart_items_product";
+    
     private final CartItemRepository cartItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final CartItemMapper cartItemMapper;
+    private final TransactionTemplate transactionTemplate;
     
     public CartService(CartItemRepository cartItemRepository,
                       UserRepository userRepository,
                       ProductRepository productRepository,
-                      CartItemMapper cartItemMapper) {
+                      CartItemMapper cartItemMapper,
+                      PlatformTransactionManager transactionManager) {
         this.cartItemRepository = cartItemRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
         this.cartItemMapper = cartItemMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
     @Transactional(readOnly = true)
-    public List<CartItemResponse> getCartItems(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
-        List<CartItem> items = cartItemRepository.findByUser(user);
+    public List<CartItemResponse> getCartItems(Long userId) {
+        List<CartItem> items = cartItemRepository.findByUserId(userId);
         return items.stream()
                 .map(cartItemMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
-    @Transactional
-    public CartItemResponse addToCart(String userEmail, Long productId, Integer quantity) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
-        Product product = productRepository.findById(productId)
+    // Sans transaction englobante : la violation d'unicité d'un premier ajout concurrent annule la transaction
+    // en cours, la nouvelle tentative doit donc s'exécuter dans une transaction distincte
+    public CartItemResponse addToCart(Long userId, Long productId, Integer quantity) {
+        // Lecture servie par le cache de second niveau dans le cas courant
+        productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
         
-        Optional<CartItem> existingItem = cartItemRepository.findByUserAndProduct(user, product);
-        
-        CartItem cartItem;
-        if (existingItem.isPresent()) {
-            cartItem = existingItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItem = cartItemRepository.save(cartItem);
-        } else {
-            cartItem = new CartItem();
-            cartItem.setUser(user);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(quantity);
-            cartItem = cartItemRepository.save(cartItem);
+        try {
+            cartItemRepository.upsertQuantity(userId, productId, quantity);
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, PRODUCT_FOREIGN_KEY)) {
+                // Produit supprimé depuis la lecture
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            if (!violates(e, UNIQUE_USER_PRODUCT)) {
+                throw e;
+            }
+            // Une requête concurrente vient de créer la ligne : l'instruction rejouée l'incrémente
+            cartItemRepository.upsertQuantity(userId, productId, quantity);
         }
         
+        CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId)
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "productId", productId));
         return cartItemMapper.toResponse(cartItem);
     }
     
+    /**
+     * Applique une suite d'opérations au panier dans une seule transaction, dans l'ordre reçu.
+     *
+     * La ligne de l'utilisateur est verrouillée en écriture, ce qui sérialise les lots d'un même panier,
+     * y compris lorsqu'il est vide ; les articles existants le sont aussi, de sorte qu'un ajout concurrent
+     * ne perde aucun incrément. Si un premier ajout concurrent crée entre-temps une ligne que le lot insère
+     * aussi, le lot est rejoué une fois dans une nouvelle transaction et trouve alors la ligne créée.
+     * Les produits sont lus en une requête et les écritures regroupées au flush (batching JDBC) ;
+     * une opération invalide annule l'ensemble du lot.
+     *
+     * UPDATE d'un produit absent du panier échoue (404), alors que REMOVE d'un produit absent est ignoré :
+     * le retrait est idempotent, comme un DELETE rejoué.
+     *
+     * @return le panier résultant
+     */
+    public List<CartItemResponse> applyBatch(Long userId, List<CartOperation> operations) {
+        try {
+            return transactionTemplate.execute(status -> applyOperations(userId, operations));
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, UNIQUE_USER_PRODUCT)) {
+                throw e;
+            }
+            return transactionTemplate.execute(status -> applyOperations(userId, operations));
+        }
+    }
+    
+    private List<CartItemResponse> applyOperations(Long userId, List<CartOperation> operations) {
+        User user = userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        Map<Long, CartItem> items = new LinkedHashMap<>();
+        for (CartItem item : cartItemRepository.findByUserIdForUpdate(userId)) {
+            items.put(item.getProduct().getId(), item);
+        }
+        
+        // Les produits déjà au panier sont lus dans la même requête : leurs proxys sont initialisés sans SELECT dédié
+        Set<Long> productIds = operations.stream()
+                .map(CartOperation::getProductId)
+                .collect(Collectors.toSet());
+        productIds.addAll(items.keySet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        
+        Map<Long, CartItem> removed = new LinkedHashMap<>();
+        for (CartOperation operation : operations) {
+            Long productId = operation.getProductId();
+            CartItem item = items.get(productId);
+            switch (operation.getType()) {
+                case ADD -> {
+                    int quantity = requireQuantity(operation);
+                    if (item != null) {
+                        item.setQuantity(item.getQuantity() + quantity);
+                    } else if (removed.containsKey(productId)) {
+                        // Ligne retirée plus tôt dans le lot : la réutiliser évite un INSERT exécuté avant son DELETE
+                        item = removed.remove(productId);
+                        item.setQuantity(quantity);
+                        items.put(productId, item);
+                    } else {
+                        Product product = products.get(productId);
+                        if (product == null) {
+                            throw new ResourceNotFoundException("Product", "id", productId);
+                        }
+                        item = new CartItem();
+                        item.setUser(user);
+                        item.setProduct(product);
+                        item.setQuantity(quantity);
+                        items.put(productId, item);
+                    }
+                }
+                case UPDATE -> {
+                    int quantity = requireQuantity(operation);
+                    if (item == null) {
+                        throw new ResourceNotFoundException("CartItem", "productId", productId);
+                    }
+                    item.setQuantity(quantity);
+                }
+                case REMOVE -> {
+                    items.remove(productId);
+                    // Un article créé plus tôt dans le même lot n'a jamais été écrit
+                    if (item != null && item.getId() != null) {
+                        removed.put(productId, item);
+                    }
+                }
+            }
+        }
+        
+        cartItemRepository.deleteAll(removed.values());
+        // Flush dans la transaction : une violation d'unicité remonte ici, traduite, plutôt qu'au commit
+        cartItemRepository.saveAllAndFlush(items.values().stream()
+                .filter(item -> item.getId() == null)
+                .collect(Collectors.toList()));
+        
+        return items.values().stream()
+                .map(cartItemMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+    
+    // Nom de la contrainte extrait par Hibernate ; selon la base, il peut être qualifié ou en majuscules
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint);
+    }
+    
+    private static int requireQuantity(CartOperation operation) {
+        if (operation.getQuantity() == null) {
+            throw new InvalidRequestException("Quantity is required for " + operation.getType() + " operations");
+        }
+        return operation.getQuantity();
+    }
+    
     @Transactional
-    public CartItemResponse updateCartItemQuantity(String userEmail, Long cartItemId, Integer quantity) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    public CartItemResponse updateCartItemQuantity(Long userId, Long cartItemId, Integer quantity) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
         
-        if (!cartItem.getUser().getId().equals(user.getId())) {
+        if (!cartItem.getUser().getId().equals(userId)) {
             throw new UnauthorizedAccessException("CartItem", "id", cartItemId);
         }
         
@@ -88,13 +211,11 @@ public class CartService {
     }
     
     @Transactional
-    public void removeFromCart(String userEmail, Long cartItemId) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    public void removeFromCart(Long userId, Long cartItemId) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
         
-        if (!cartItem.getUser().getId().equals(user.getId())) {
+        if (!cartItem.getUser().getId().equals(userId)) {
             throw new UnauthorizedAccessException("CartItem", "id", cartItemId);
         }
         
@@ -102,9 +223,7 @@ public class CartService {
     }
     
     @Transactional
-    public void clearCart(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
-        cartItemRepository.deleteByUser(user);
+    public void clearCart(Long userId) {
+        cartItemRepository.deleteByUserId(userId);
     }
 }
@@ -0,0 +1,74 @@
+package com.alten.producttrial.service;
+
+import com.alten.producttrial.exception.InvalidRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position de reprise d'une pagination par clé : le couple (clé de tri, id) de la dernière ligne servie,
+ * accompagné du tri auquel il se rapporte. Sérialisé en Base64 URL, opaque pour les clients.
+ */
+final class ProductCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final Object key;
+    
+    ProductCursor(String sortBy, Sort.Direction direction, Long id, Object key) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.id = id;
+        this.key = key;
+    }
+    
+    String getSortBy() {
+        return sortBy;
+    }
+    
+    Sort.Direction getDirection() {
+        return direction;
+    }
+    
+    Long getId() {
+        return id;
+    }
+    
+    Object getKey() {
+        return key;
+    }
+    
+    String encode() {
+        String raw = sortBy + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // La clé est placée en dernier : elle peut elle-même contenir le séparateur
+    static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new InvalidRequestException("Invalid cursor");
+            }
+            String sortBy = parts[0];
+            Long id = Long.valueOf(parts[2]);
+            return new ProductCursor(sortBy, Sort.Direction.valueOf(parts[1]), id, parseKey(sortBy, parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+    
+    private static Object parseKey(String sortBy, String value) {
+        return switch (sortBy) {
+            case "id" -> Long.valueOf(value);
+            case "price" -> Double.valueOf(value);
+            case "code", "name" -> value;
+            default -> throw new InvalidRequestException("Invalid cursor");
+        };
+    }
+}
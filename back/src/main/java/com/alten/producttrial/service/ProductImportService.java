@@ -0,0 +1,197 @@
+package com.alten.producttrial.service;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.dto.ProductImportReport;
+import com.alten.producttrial.dto.ProductRequest;
+import com.alten.producttrial.mapper.ProductMapper;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse de produits (CSV avec en-tête ou NDJSON), lu au fil de l'eau et écrit par lots.
+ *
+ * Chaque ligne est validée avec les contraintes de {@link ProductRequest} puis créée ou mise à jour selon
+ * son code. Un lot est écrit dans sa propre transaction : un lot en échec est rejeté sans annuler les
+ * précédents. Les écritures passent par la session JPA, de sorte que le cache de second niveau et les
+ * structures en mémoire du catalogue suivent l'import.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+    
+    public enum Format {
+        CSV, NDJSON
+    }
+    
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final AppProperties appProperties;
+    
+    public ProductImportService(ProductRepository productRepository, ProductMapper productMapper, Validator validator,
+                                ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                                EntityManager entityManager, AppProperties appProperties) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.appProperties = appProperties;
+    }
+    
+    public ProductImportReport importProducts(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        int batchSize = appProperties.getBulkImport().getBatchSize();
+        ProductImportReport report = new ProductImportReport();
+        // Une ligne répétée dans un même lot remplace la précédente
+        Map<String, ProductRequest> batch = new LinkedHashMap<>();
+        
+        try (MappingIterator<ProductRequest> rows = reader(format).readValues(input)) {
+            int row = 0;
+            while (true) {
+                ProductRequest request;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    request = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // Flux illisible : impossible de retrouver le début de l'enregistrement suivant
+                    reject(report, row, null, "Malformed input: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    reject(report, row, null, "Invalid value: " + e.getOriginalMessage());
+                    continue;
+                }
+                
+                Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    reject(report, row, request.getCode(), violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+                
+                batch.put(request.getCode(), request);
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, row, report);
+                }
+            }
+            writeBatch(batch, row, report);
+            report.setTotalRows(row);
+        }
+        
+        report.setDurationMs(System.currentTimeMillis() - start);
+        log.info("Import de produits terminé - {} lignes, {} créées, {} mises à jour, {} rejetées en {} ms",
+                report.getTotalRows(), report.getCreated(), report.getUpdated(), report.getRejected(),
+                report.getDurationMs());
+        return report;
+    }
+    
+    private ObjectReader reader(Format format) {
+        if (format == Format.CSV) {
+            return CSV_MAPPER.readerFor(ProductRequest.class).with(CsvSchema.emptySchema().withHeader());
+        }
+        return objectMapper.readerFor(ProductRequest.class);
+    }
+    
+    private void writeBatch(Map<String, ProductRequest> batch, int lastRow, ProductImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ProductRequest> requests = new ArrayList<>(batch.values());
+        batch.clear();
+        try {
+            int[] counts = transactionTemplate.execute(status -> upsert(requests));
+            report.setCreated(report.getCreated() + counts[0]);
+            report.setUpdated(report.getUpdated() + counts[1]);
+        } catch (DataAccessException | PersistenceException e) {
+            // Le flush passe par l'EntityManager partagé : ses exceptions Hibernate ne sont pas traduites
+            log.error("Échec de l'écriture d'un lot de {} produits (jusqu'à la ligne {})", requests.size(), lastRow, e);
+            report.setRejected(report.getRejected() + requests.size());
+            addError(report, lastRow, null, "Batch of " + requests.size() + " rows ending at this row could not be written: "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        log.info("Import de produits - {} lignes lues, {} créées, {} mises à jour, {} rejetées",
+                lastRow, report.getCreated(), report.getUpdated(), report.getRejected());
+    }
+    
+    // Une requête pour retrouver les produits existants du lot, puis des INSERT/UPDATE regroupés au flush
+    private int[] upsert(List<ProductRequest> requests) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(appProperties.getBulkImport().getBatchSize());
+        Map<String, Product> existing = productRepository.findByCodeIn(
+                        requests.stream().map(ProductRequest::getCode).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Product::getCode, Function.identity()));
+        
+        int created = 0;
+        int updated = 0;
+        for (ProductRequest request : requests) {
+            Product product = existing.get(request.getCode());
+            if (product == null) {
+                entityManager.persist(productMapper.toEntity(request));
+                created++;
+            } else {
+                productMapper.updateEntityFromRequest(product, request);
+                updated++;
+            }
+        }
+        // Contexte de persistance vidé à chaque lot : la mémoire reste bornée quelle que soit la taille du fichier
+        entityManager.flush();
+        entityManager.clear();
+        return new int[] {created, updated};
+    }
+    
+    private void reject(ProductImportReport report, int row, String code, String message) {
+        report.setRejected(report.getRejected() + 1);
+        addError(report, row, code, message);
+    }
+    
+    private void addError(ProductImportReport report, int row, String code, String message) {
+        if (report.getErrors().size() < appProperties.getBulkImport().getMaxReportedErrors()) {
+            report.getErrors().add(new ProductImportReport.RowError(row, code, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+}
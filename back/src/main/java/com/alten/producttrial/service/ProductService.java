@@ -1,48 +1,229 @@
 package com.alten.producttrial.service;
 
+import com.alten.producttrial.catalog.CategoryDictionary;
+import com.alten.producttrial.catalog.ProductFacetIndex;
+import com.alten.producttrial.catalog.ProductSearchIndex;
+import com.alten.producttrial.catalog.ProductSnapshot;
+import com.alten.producttrial.dto.CursorPage;
+import com.alten.producttrial.dto.ProductFacets;
+import com.alten.producttrial.dto.ProductFilter;
 import com.alten.producttrial.dto.ProductRequest;
 import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.dto.ProductSummary;
 import com.alten.producttrial.exception.DuplicateResourceException;
+import com.alten.producttrial.exception.InvalidRequestException;
 import com.alten.producttrial.exception.ResourceNotFoundException;
 import com.alten.producttrial.mapper.ProductMapper;
 import com.alten.producttrial.model.Product;
 import com.alten.producttrial.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class ProductService {
     
+    // Colonnes non nulles présentes dans toutes les projections : la clé de reprise est toujours définie
+    private static final Set<String> SEEK_SORT_FIELDS = Set.of("id", "code", "name", "price");
+    
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final CategoryDictionary categoryDictionary;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSnapshot productSnapshot;
+    private final TransactionTemplate readOnlyTransaction;
+    private final EntityManager entityManager;
     
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper,
+                          ProductSearchIndex productSearchIndex, CategoryDictionary categoryDictionary,
+                          ProductFacetIndex productFacetIndex, ProductSnapshot productSnapshot,
+                          PlatformTransactionManager transactionManager, EntityManager entityManager) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.categoryDictionary = categoryDictionary;
+        this.productFacetIndex = productFacetIndex;
+        this.productSnapshot = productSnapshot;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entityManager = entityManager;
         log.info("ProductService initialisé");
     }
     
+    // Listes sans @Transactional : servies depuis l'instantané, elles ne prennent pas de connexion JDBC
+    public Page<ProductResponse> getAllProducts(Pageable pageable, ProductFilter filter) {
+        return findProducts(ProductResponse.class, pageable, filter);
+    }
+    
+    public Page<ProductSummary> getProductSummaries(Pageable pageable, ProductFilter filter) {
+        return findProducts(ProductSummary.class, pageable, filter);
+    }
+    
+    private <T> Page<T> findProducts(Class<T> type, Pageable pageable, ProductFilter filter) {
+        log.debug("Récupération des produits avec pagination - page: {}, size: {}, filtre: {}", 
+            pageable.getPageNumber(), pageable.getPageSize(), filter);
+        
+        Page<T> products = productSnapshot.findPage(type, pageable, filter)
+            .orElseGet(() -> readOnlyTransaction.execute(status -> queryProducts(type, pageable, filter)));
+        log.info("{} produits trouvés", products.getTotalElements());
+        
+        return products;
+    }
+    
+    // Lecture en projection : pas d'entités managées, la description n'est chargée que si le DTO la contient
+    private <T> Page<T> queryProducts(Class<T> type, Pageable pageable, ProductFilter filter) {
+        Optional<Specification<Product>> spec = buildFilter(filter);
+        if (spec.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return productRepository.findAllAs(type, spec.get(), pageable);
+    }
+    
+    public CursorPage<ProductResponse> seekProducts(int size, String sortBy, String sortDir, ProductFilter filter,
+                                                    String cursor, boolean withTotal) {
+        return seek(ProductResponse.class, size, sortBy, sortDir, filter, cursor, withTotal);
+    }
+    
+    public CursorPage<ProductSummary> seekProductSummaries(int size, String sortBy, String sortDir, ProductFilter filter,
+                                                           String cursor, boolean withTotal) {
+        return seek(ProductSummary.class, size, sortBy, sortDir, filter, cursor, withTotal);
+    }
+    
+    // Pagination par clé : le coût d'une page ne dépend pas de sa profondeur, le total n'est compté que sur demande
+    private <T> CursorPage<T> seek(Class<T> type, int size, String sortBy, String sortDir, ProductFilter filter,
+                                   String cursor, boolean withTotal) {
+        String sortField = sortBy != null ? sortBy : "name";
+        if (!SEEK_SORT_FIELDS.contains(sortField)) {
+            throw new InvalidRequestException("Unsupported sort field for cursor pagination: " + sortField);
+        }
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        Sort.Direction direction = "DESC".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        
+        ProductCursor after = cursor != null && !cursor.isEmpty() ? ProductCursor.decode(cursor) : null;
+        if (after != null && (!after.getSortBy().equals(sortField) || after.getDirection() != direction)) {
+            throw new InvalidRequestException("Cursor does not match the requested sort");
+        }
+        log.debug("Récupération des produits par clé - size: {}, sortBy: {}, filtre: {}, suite: {}",
+            size, sortField, filter, after != null);
+        
+        // Une ligne de plus que demandé indique s'il existe une page suivante, sans comptage
+        Object lastKey = after != null ? after.getKey() : null;
+        Long lastId = after != null ? after.getId() : null;
+        Optional<List<T>> fromSnapshot = productSnapshot.findSeek(type, filter, sortField, direction,
+            lastKey, lastId, size + 1);
+        Optional<Long> totalFromSnapshot = withTotal ? productSnapshot.count(filter) : Optional.empty();
+        if (fromSnapshot.isPresent() && (!withTotal || totalFromSnapshot.isPresent())) {
+            return toCursorPage(fromSnapshot.get(), size, sortField, direction, totalFromSnapshot.orElse(null));
+        }
+        
+        return readOnlyTransaction.execute(status -> {
+            Optional<Specification<Product>> spec = buildFilter(filter);
+            if (spec.isEmpty()) {
+                return new CursorPage<T>(List.of(), 0, null, withTotal ? 0L : null);
+            }
+            List<T> rows = productRepository.findSeekAs(type, spec.get(), sortField, direction, lastKey, lastId, size + 1);
+            Long total = withTotal ? productRepository.count(spec.get()) : null;
+            return toCursorPage(rows, size, sortField, direction, total);
+        });
+    }
+    
+    private static <T> CursorPage<T> toCursorPage(List<T> rows, int size, String sortField, Sort.Direction direction,
+                                                  Long total) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        
+        String nextCursor = null;
+        if (hasNext) {
+            BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(content.get(size - 1));
+            nextCursor = new ProductCursor(sortField, direction, (Long) last.getPropertyValue("id"),
+                last.getPropertyValue(sortField)).encode();
+        }
+        
+        return new CursorPage<>(new ArrayList<>(content), content.size(), nextCursor, total);
+    }
+    
+    /**
+     * Compte les produits par catégorie, statut de stock, tranche de prix et tranche de note, parmi ceux
+     * qui correspondent aux filtres catégorie / recherche des listes de produits.
+     */
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getAllProducts(Pageable pageable, String category, String search) {
-        log.debug("Récupération des produits avec pagination - page: {}, size: {}, category: {}, search: {}", 
-            pageable.getPageNumber(), pageable.getPageSize(), category, search);
+    public ProductFacets getFacets(String category, String search) {
+        log.debug("Calcul des facettes - category: {}, search: {}", category, search);
         
+        List<String> categories = null;
+        if (category != null && !category.trim().isEmpty()) {
+            categories = categoryDictionary.findMatching(category);
+        }
+        
+        long[] ids = null;
+        if (search != null && !search.trim().isEmpty()) {
+            ids = productSearchIndex.findMatches(search);
+            if (ids == null) {
+                // Recherche que l'index ne résout pas exactement : seuls les identifiants sont lus en base,
+                // les comptes restent calculés en mémoire
+                ids = buildFilter(new ProductFilter(null, search, null, null, null, null))
+                    .map(spec -> productRepository.findIds(spec).stream().mapToLong(Long::longValue).toArray())
+                    .orElse(new long[0]);
+            }
+        }
+        
+        return productFacetIndex.facets(categories, ids);
+    }
+    
+    /**
+     * Construit le filtre commun aux listes de produits.
+     *
+     * @return le filtre, ou vide si le dictionnaire des catégories ou l'index de recherche établit
+     *         qu'aucun produit ne peut correspondre
+     */
+    private Optional<Specification<Product>> buildFilter(ProductFilter filter) {
         Specification<Product> spec = Specification.where(null);
+        String category = filter.getCategory();
+        String search = filter.getSearch();
         
         if (category != null && !category.trim().isEmpty()) {
-            spec = spec.and((root, query, cb) -> 
-                cb.equal(cb.lower(root.get("category")), category.toLowerCase()));
+            // La casse est résolue en mémoire : la requête compare category_id aux clés des libellés retenus
+            List<String> categories = categoryDictionary.findMatching(category);
+            if (categories.isEmpty()) {
+                return Optional.empty();
+            }
+            spec = spec.and((root, query, cb) -> root.get("category").in(categories));
         }
         
         if (search != null && !search.trim().isEmpty()) {
+            // L'index inversé restreint la recherche à un ensemble de candidats ; le LIKE garantit la sémantique exacte
+            long[] candidates = productSearchIndex.findCandidates(search);
+            if (candidates != null && candidates.length == 0) {
+                return Optional.empty();
+            }
+            if (candidates != null) {
+                List<Long> candidateIds = Arrays.stream(candidates).boxed().toList();
+                spec = spec.and((root, query, cb) -> root.get("id").in(candidateIds));
+            }
+            
             String searchLower = "%" + search.toLowerCase() + "%";
             Specification<Product> searchSpec = (root, query, cb) -> 
                 cb.or(
@@ -53,20 +234,60 @@ public class ProductService {
             spec = spec.and(searchSpec);
         }
         
-        Page<Product> products = productRepository.findAll(spec, pageable);
-        log.info("{} produits trouvés", products.getTotalElements());
+        // Bornes incluses ; la comparaison sur la note écarte les produits sans note
+        if (filter.getMinPrice() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+        }
+        if (filter.getMinRating() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("rating"), filter.getMinRating()));
+        }
+        if (filter.getInventoryStatus() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("inventoryStatus"), filter.getInventoryStatus()));
+        }
         
-        return products.map(productMapper::toResponse);
+        return Optional.of(spec);
     }
     
+    /**
+     * Transmet chaque produit du catalogue à {@code action} au fur et à mesure de sa lecture.
+     *
+     * @return le nombre de produits transmis
+     */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        log.debug("Récupération de tous les produits sans pagination");
-        List<Product> products = productRepository.findAll();
-        log.info("{} produits récupérés", products.size());
-        return products.stream()
-            .map(productMapper::toResponse)
-            .collect(Collectors.toList());
+    public long exportProducts(Consumer<? super ProductResponse> action) {
+        return export(productMapper::toResponse, action);
+    }
+    
+    @Transactional(readOnly = true)
+    public long exportProductSummaries(Consumer<? super ProductSummary> action) {
+        return export(productMapper::toSummary, action);
+    }
+    
+    // Chaque entité est détachée une fois écrite : le contexte de persistance reste de taille constante
+    private <T> long export(Function<Product, T> mapper, Consumer<? super T> action) {
+        log.debug("Export de tous les produits sans pagination");
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAllByOrderById()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                action.accept(mapper.apply(product));
+                entityManager.detach(product);
+                count++;
+            }
+        }
+        log.info("{} produits exportés", count);
+        return count;
+    }
+    
+    /**
+     * Libellés des catégories du dictionnaire, servis depuis la mémoire.
+     */
+    public List<String> getCategories() {
+        return categoryDictionary.names();
     }
     
     @Transactional(readOnly = true)
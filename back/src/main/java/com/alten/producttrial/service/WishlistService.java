@@ -5,7 +5,6 @@ import com.alten.producttrial.exception.ResourceNotFoundException;
 import com.alten.producttrial.exception.UnauthorizedAccessException;
 import com.alten.producttrial.mapper.WishlistItemMapper;
 import com.alten.producttrial.model.Product;
-import com.alten.producttrial.model.User;
 import com.alten.producttrial.model.WishlistItem;
 import com.alten.producttrial.repository.ProductRepository;
 import com.alten.producttrial.repository.UserRepository;
@@ -36,30 +35,27 @@ public class WishlistService {
     }
     
     @Transactional(readOnly = true)
-    public List<WishlistItemResponse> getWishlistItems(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
-        List<WishlistItem> items = wishlistItemRepository.findByUser(user);
+    public List<WishlistItemResponse> getWishlistItems(Long userId) {
+        List<WishlistItem> items = wishlistItemRepository.findByUserId(userId);
         return items.stream()
                 .map(wishlistItemMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
     @Transactional
-    public WishlistItemResponse addToWishlist(String userEmail, Long productId) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    public WishlistItemResponse addToWishlist(Long userId, Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
         
-        Optional<WishlistItem> existingItem = wishlistItemRepository.findByUserAndProduct(user, product);
+        Optional<WishlistItem> existingItem = wishlistItemRepository.findByUserIdAndProductId(userId, productId);
         
         WishlistItem wishlistItem;
         if (existingItem.isPresent()) {
             wishlistItem = existingItem.get();
         } else {
             wishlistItem = new WishlistItem();
-            wishlistItem.setUser(user);
+            // Référence sans chargement : l'utilisateur est identifié par le token
+            wishlistItem.setUser(userRepository.getReferenceById(userId));
             wishlistItem.setProduct(product);
             wishlistItem = wishlistItemRepository.save(wishlistItem);
         }
@@ -68,13 +64,11 @@ public class WishlistService {
     }
     
     @Transactional
-    public void removeFromWishlist(String userEmail, Long wishlistItemId) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    public void removeFromWishlist(Long userId, Long wishlistItemId) {
         WishlistItem wishlistItem = wishlistItemRepository.findById(wishlistItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("WishlistItem", "id", wishlistItemId));
         
-        if (!wishlistItem.getUser().getId().equals(user.getId())) {
+        if (!wishlistItem.getUser().getId().equals(userId)) {
             throw new UnauthorizedAccessException("WishlistItem", "id", wishlistItemId);
         }
         
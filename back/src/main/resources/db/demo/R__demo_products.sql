@@ -1,5 +1,12 @@
--- Insertion des produits initiaux
-INSERT INTO products (id, code, name, description, image, category, price, quantity, internal_reference, shell_id, inventory_status, rating, created_at, updated_at) VALUES
+-- Catalogue de démonstration, chargé uniquement par l'application (spring.flyway.locations) et non par les tests.
+-- Migration répétable et idempotente (MERGE sur le nom de catégorie et l'identifiant produit) : rejouée
+-- si ce fichier change
+MERGE INTO categories (name) KEY (name) VALUES ('Accessories'), ('Clothing'), ('Electronics'), ('Fitness');
+
+-- Les libellés de catégorie des lignes ci-dessous sont résolus en clés du dictionnaire par la jointure
+MERGE INTO products (id, code, name, description, image, category_id, price, quantity, internal_reference, shell_id, inventory_status, rating, created_at, updated_at) KEY (id)
+SELECT v.id, v.code, v.name, v.description, v.image, c.id, v.price, v.quantity, v.internal_reference, v.shell_id, v.inventory_status, v.rating, v.created_at, v.updated_at
+FROM (VALUES
 (1000, 'f230fh0g3', 'Bamboo Watch', 'Product Description', 'bamboo-watch.jpg', 'Accessories', 65.0, 24, 'REF-123-456', 15, 'INSTOCK', 5.0, 1718114215761, 1718114215761),
 (1001, 'nvklal433', 'Black Watch', 'Product Description', 'black-watch.jpg', 'Accessories', 72.0, 61, 'REF-123-456', 15, 'INSTOCK', 4.0, 1718114215761, 1718114215761),
 (1002, 'zz21cz3c1', 'Blue Band', 'Product Description', 'blue-band.jpg', 'Fitness', 79.0, 2, 'REF-123-456', 15, 'LOWSTOCK', 3.0, 1718114215761, 1718114215761),
@@ -29,4 +36,10 @@ INSERT INTO products (id, code, name, description, image, category, price, quant
 (1026, 'zx23zc42c', 'Teal T-Shirt', 'Product Description', 'teal-t-shirt.jpg', 'Clothing', 49.0, 3, 'REF-123-456', 15, 'LOWSTOCK', 3.0, 1718114215761, 1718114215761),
 (1027, 'acvx872gc', 'Yellow Earbuds', 'Product Description', 'yellow-earbuds.jpg', 'Electronics', 89.0, 35, 'REF-123-456', 15, 'INSTOCK', 3.0, 1718114215761, 1718114215761),
 (1028, 'tx125ck42', 'Yoga Mat', 'Product Description', 'yoga-mat.jpg', 'Fitness', 20.0, 15, 'REF-123-456', 15, 'INSTOCK', 5.0, 1718114215761, 1718114215761),
-(1029, 'gwuby345v', 'Yoga Set', 'Product Description', 'yoga-set.jpg', 'Fitness', 20.0, 25, 'REF-123-456', 15, 'INSTOCK', 8.0, 1718114215761, 1718114215761);
+(1029, 'gwuby345v', 'Yoga Set', 'Product Description', 'yoga-set.jpg', 'Fitness', 20.0, 25, 'REF-123-456', 15, 'INSTOCK', 8.0, 1718114215761, 1718114215761)
+) AS v (id, code, name, description, image, category, price, quantity, internal_reference, shell_id, inventory_status, rating, created_at, updated_at)
+JOIN categories c ON c.name = v.category;
+
+-- Repositionner la séquence au-delà des identifiants fixés ci-dessus (optimiseur pooled-lo :
+-- la valeur lue est le premier identifiant d'un bloc)
+ALTER SEQUENCE product_seq RESTART WITH (SELECT MAX(id) + 1 FROM products);
@@ -0,0 +1,71 @@
+-- Schéma initial, identique à celui que générait Hibernate (ddl-auto=create-drop), plus les index
+-- des requêtes fréquentes. Hibernate ne fait plus que valider le mapping (ddl-auto=validate).
+
+-- Identifiants réservés par blocs de 50 (allocationSize des entités, optimiseur pooled-lo)
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE cart_item_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE wishlist_item_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE products (
+    id BIGINT NOT NULL,
+    code VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    image VARCHAR(255),
+    category VARCHAR(255) NOT NULL,
+    price FLOAT(53) NOT NULL,
+    quantity INTEGER NOT NULL,
+    internal_reference VARCHAR(255),
+    shell_id BIGINT,
+    inventory_status VARCHAR(255) NOT NULL,
+    rating FLOAT(53),
+    created_at BIGINT NOT NULL,
+    updated_at BIGINT NOT NULL,
+    CONSTRAINT pk_products PRIMARY KEY (id),
+    CONSTRAINT uk_products_code UNIQUE (code),
+    CONSTRAINT ck_products_inventory_status CHECK (inventory_status IN ('INSTOCK', 'LOWSTOCK', 'OUTOFSTOCK'))
+);
+
+CREATE TABLE users (
+    id BIGINT NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    firstname VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+-- Une seule ligne par produit dans le panier : l'index unique (user_id, product_id) sert aussi la lecture
+-- du panier d'un utilisateur (préfixe user_id) et la recherche d'une ligne par utilisateur et produit
+CREATE TABLE cart_items (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    CONSTRAINT pk_cart_items PRIMARY KEY (id),
+    CONSTRAINT uk_cart_items_user_product UNIQUE (user_id, product_id),
+    CONSTRAINT fk_cart_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE wishlist_items (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    CONSTRAINT pk_wishlist_items PRIMARY KEY (id),
+    CONSTRAINT fk_wishlist_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_wishlist_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- Liste d'envies d'un utilisateur et recherche d'une ligne par utilisateur et produit
+CREATE INDEX idx_wishlist_items_user_product ON wishlist_items (user_id, product_id);
+
+-- Suppression d'un produit : contrôle des lignes de panier et de liste d'envies qui le référencent
+CREATE INDEX idx_cart_items_product ON cart_items (product_id);
+CREATE INDEX idx_wishlist_items_product ON wishlist_items (product_id);
+
+-- Filtre par catégorie, trié par nom (tri par défaut des listes paginées) : ni tri ni parcours de la table
+CREATE INDEX idx_products_category_name ON products (category, name);
@@ -0,0 +1,24 @@
+-- Dictionnaire des catégories : chaque produit référence sa catégorie par une petite clé entière au lieu de
+-- répéter le libellé. Le filtre par catégorie devient une égalité sur category_id, servie par l'index.
+
+CREATE TABLE categories (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_categories PRIMARY KEY (id),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+-- Reprise des libellés existants (les bases déjà peuplées gardent leurs produits)
+INSERT INTO categories (name) SELECT DISTINCT category FROM products ORDER BY category;
+
+ALTER TABLE products ADD COLUMN category_id INTEGER;
+UPDATE products p SET category_id = (SELECT c.id FROM categories c WHERE c.name = p.category);
+ALTER TABLE products ALTER COLUMN category_id SET NOT NULL;
+
+DROP INDEX idx_products_category_name;
+ALTER TABLE products DROP COLUMN category;
+
+-- Filtre par catégorie, trié par nom (tri par défaut des listes paginées). Créé avant la clé étrangère,
+-- qui s'appuie dessus (préfixe category_id) au lieu d'ajouter son propre index
+CREATE INDEX idx_products_category_name ON products (category_id, name);
+ALTER TABLE products ADD CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id);
@@ -0,0 +1,185 @@
+package com.alten.producttrial;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.tools.Server;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test de charge en boucle fermée : N clients simultanés enchaînent des lectures authentifiées du panier
+ * et de la liste d'envies (filtre JWT, puis requête JPA), pendant une durée fixe. Affiche le débit, les
+ * percentiles de latence et la répartition des statuts HTTP.
+ *
+ * L'application est démarrée dans le processus, avec ou sans threads virtuels. La base H2 est servie en
+ * TCP : chaque requête SQL coûte un aller-retour réseau, comme avec une base distante.
+ *
+ * Lancement : mvn test-compile puis exécuter {@link #main(String[])} avec le classpath de test, par exemple
+ * {@code RequestLoadBenchmark virtual 1000 20} (mode platform|virtual, clients, durée en secondes, puis
+ * éventuellement des propriétés de l'application).
+ */
+public class RequestLoadBenchmark {
+    
+    private static final int USERS = 20;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "virtual";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 20);
+        
+        Server database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:load;DB_CLOSE_DELAY=-1",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=OFF"));
+        // Arguments suivants transmis à l'application, pour comparer des réglages (--app.request-limit.max-in-flight=...)
+        applicationArgs.addAll(Arrays.asList(args).subList(Math.min(args.length, 3), args.length));
+        ConfigurableApplicationContext context = SpringApplication.run(ProductTrialApplication.class,
+                applicationArgs.toArray(new String[0]));
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(executor)
+                        .build();
+                List<String> tokens = createUsers(client, baseUrl);
+                
+                run(client, executor, baseUrl, tokens, clients, WARMUP);
+                Result result = run(client, executor, baseUrl, tokens, clients, duration);
+                System.out.printf("mode=%s clients=%d durée=%ds%n", mode, clients, duration.toSeconds());
+                System.out.println(result);
+            }
+        } finally {
+            context.close();
+            database.stop();
+        }
+    }
+    
+    private static List<String> createUsers(HttpClient client, String baseUrl) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String email = "load" + i + "@example.com";
+            send(client, baseUrl + "/api/account", objectMapper.writeValueAsString(Map.of(
+                    "username", "load" + i, "firstname", "Load", "email", email, "password", "password123")));
+            String login = send(client, baseUrl + "/api/token", objectMapper.writeValueAsString(Map.of(
+                    "email", email, "password", "password123")));
+            tokens.add(objectMapper.readTree(login).get("token").asText());
+        }
+        return tokens;
+    }
+    
+    private static String send(HttpClient client, String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+    
+    private static Result run(HttpClient client, ExecutorService executor, String baseUrl, List<String> tokens,
+                              int clients, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Worker>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Worker worker = new Worker(client, baseUrl, tokens.get(i % tokens.size()), deadline);
+            futures.add(executor.submit(() -> {
+                worker.run();
+                return worker;
+            }));
+        }
+        
+        Result result = new Result(duration);
+        for (Future<Worker> future : futures) {
+            result.add(future.get());
+        }
+        return result;
+    }
+    
+    private static final class Worker {
+        
+        private final HttpClient client;
+        private final HttpRequest[] requests;
+        private final long deadline;
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        
+        Worker(HttpClient client, String baseUrl, String token, long deadline) {
+            this.client = client;
+            this.deadline = deadline;
+            this.requests = new HttpRequest[] {
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/api/cart"))
+                            .header("Authorization", "Bearer " + token).build(),
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/api/wishlist"))
+                            .header("Authorization", "Bearer " + token).build()
+            };
+        }
+        
+        void run() {
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(requests[count % requests.length], HttpResponse.BodyHandlers.discarding())
+                            .statusCode();
+                } catch (Exception e) {
+                    status = -1;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - start;
+                statuses.merge(status, 1, Integer::sum);
+            }
+        }
+    }
+    
+    private static final class Result {
+        
+        private final Duration duration;
+        private long[] latencies = new long[0];
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        
+        Result(Duration duration) {
+            this.duration = duration;
+        }
+        
+        void add(Worker worker) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            worker.statuses.forEach((status, count) -> statuses.merge(status, count, Integer::sum));
+        }
+        
+        private double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+        
+        @Override
+        public String toString() {
+            Arrays.sort(latencies);
+            return String.format("débit=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms statuts=%s",
+                    latencies.length / (double) duration.toSeconds(),
+                    percentileMillis(0.50), percentileMillis(0.99), percentileMillis(1.0), statuses);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.alten.producttrial.catalog;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryDictionaryTest {
+    
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CategoryDictionary dictionary;
+    
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:categories;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE categories (id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('Electronics'), ('accessories')");
+        
+        dictionary = new CategoryDictionary(dataSource);
+        dictionary.load();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE categories");
+    }
+    
+    @Test
+    void idOf_KnownCategory_ShouldReturnStoredKey() {
+        Integer id = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'Electronics'", Integer.class);
+        
+        assertEquals(id, dictionary.idOf("Electronics"));
+        assertEquals("Electronics", dictionary.nameOf(id));
+    }
+    
+    @Test
+    void idOf_UnknownCategory_ShouldNotInsertIt() {
+        assertEquals(CategoryDictionary.UNKNOWN_ID, dictionary.idOf("Garden"));
+        
+        assertEquals(0, countCategories("Garden"));
+        assertTrue(dictionary.findMatching("garden").isEmpty());
+    }
+    
+    @Test
+    void getOrCreate_NewCategory_ShouldInsertItOnce() {
+        Integer id = dictionary.getOrCreate("Garden");
+        
+        assertEquals(id, dictionary.getOrCreate("Garden"));
+        assertEquals(id, dictionary.idOf("Garden"));
+        assertEquals(1, countCategories("Garden"));
+        assertEquals(List.of("Garden"), dictionary.findMatching("garden"));
+    }
+    
+    @Test
+    void getOrCreate_InCommittedTransaction_ShouldPublishAfterCommit() {
+        Integer id = transactionTemplate.execute(status -> {
+            Integer created = dictionary.getOrCreate("Garden");
+            // Visible de la transaction qui l'a créée
+            assertEquals(created, dictionary.idOf("Garden"));
+            assertEquals("Garden", dictionary.nameOf(created));
+            return created;
+        });
+        
+        assertEquals(id, dictionary.idOf("Garden"));
+        assertTrue(dictionary.names().contains("Garden"));
+    }
+    
+    @Test
+    void getOrCreate_InRolledBackTransaction_ShouldLeaveNoCategory() {
+        transactionTemplate.executeWithoutResult(status -> {
+            dictionary.getOrCreate("Garden");
+            status.setRollbackOnly();
+        });
+        
+        assertEquals(0, countCategories("Garden"));
+        assertEquals(CategoryDictionary.UNKNOWN_ID, dictionary.idOf("Garden"));
+        assertFalse(dictionary.names().contains("Garden"));
+    }
+    
+    @Test
+    void nameOf_CategoryCreatedElsewhere_ShouldReload() {
+        // Catégorie insérée par une autre instance après le chargement
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('Fitness')");
+        Integer id = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'Fitness'", Integer.class);
+        
+        assertEquals("Fitness", dictionary.nameOf(id));
+    }
+    
+    @Test
+    void nameOf_UnknownKey_ShouldThrowException() {
+        assertThrows(IllegalStateException.class, () -> dictionary.nameOf(999));
+    }
+    
+    @Test
+    void findMatching_ShouldIgnoreCase() {
+        assertEquals(List.of("Electronics"), dictionary.findMatching("ELECTRONICS"));
+        assertTrue(dictionary.findMatching("Clothing").isEmpty());
+    }
+    
+    @Test
+    void names_ShouldBeSortedIgnoringCase() {
+        assertEquals(List.of("accessories", "Electronics"), dictionary.names());
+    }
+    
+    private int countCategories(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categories WHERE name = ?", Integer.class, name);
+    }
+}
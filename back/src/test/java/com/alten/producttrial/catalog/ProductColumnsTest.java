@@ -0,0 +1,124 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductColumnsTest {
+    
+    @Test
+    void build_ShouldSortEachPermutationByKeyThenId() {
+        ProductColumns columns = ProductColumns.build(List.of(
+            row(3L, "Lamp", 30.0, 4.0),
+            row(1L, "Chair", 30.0, null),
+            row(2L, "Desk", 10.0, 2.0)
+        ));
+        
+        assertEquals(List.of(1L, 2L, 3L), ids(columns, ProductColumns.SortField.ID));
+        assertEquals(List.of(1L, 2L, 3L), ids(columns, ProductColumns.SortField.NAME));
+        assertEquals(List.of(2L, 1L, 3L), ids(columns, ProductColumns.SortField.PRICE));
+        // Les produits sans note précèdent les autres
+        assertEquals(List.of(1L, 2L, 3L), ids(columns, ProductColumns.SortField.RATING));
+        assertNull(columns.rating(columns.rowOf(1L)));
+    }
+    
+    @Test
+    void apply_ShouldPublishNewSnapshotAndLeavePreviousUnchanged() {
+        ProductColumns before = ProductColumns.build(List.of(row(1L, "Chair", 30.0, null), row(2L, "Desk", 10.0, 2.0)));
+        Map<Long, ProductColumns.Row> changes = new HashMap<>();
+        changes.put(1L, row(1L, "Chair", 5.0, null));
+        changes.put(2L, null);
+        changes.put(3L, row(3L, "Armchair", 20.0, 1.0));
+        
+        ProductColumns after = before.apply(changes);
+        
+        assertEquals(List.of(1L, 3L), ids(after, ProductColumns.SortField.PRICE));
+        assertEquals(List.of(3L, 1L), ids(after, ProductColumns.SortField.NAME));
+        assertEquals(5.0, after.price(after.rowOf(1L)));
+        assertEquals(-1, after.rowOf(2L));
+        assertEquals(2, after.countOf(1));
+        
+        assertEquals(List.of(2L, 1L), ids(before, ProductColumns.SortField.PRICE));
+        assertEquals(30.0, before.price(before.rowOf(1L)));
+        assertEquals(2, before.countOf(1));
+    }
+    
+    @Test
+    void apply_ManyUpdates_ShouldCompactDeadRows() {
+        List<ProductColumns.Row> rows = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            rows.add(row(id, "Product " + id, id, null));
+        }
+        ProductColumns columns = ProductColumns.build(rows);
+        
+        for (int round = 0; round < 300; round++) {
+            Map<Long, ProductColumns.Row> changes = new HashMap<>();
+            for (long id = 1; id <= 10; id++) {
+                changes.put(id, row(id, "Product " + id, id + round, null));
+            }
+            columns = columns.apply(changes);
+        }
+        
+        assertEquals(10, columns.size());
+        assertEquals(308.0, columns.price(columns.rowOf(9L)));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids(columns, ProductColumns.SortField.PRICE));
+    }
+    
+    @Test
+    void position_ShouldLocateSeekKey() {
+        ProductColumns columns = ProductColumns.build(List.of(
+            row(1L, "Chair", 30.0, null),
+            row(2L, "Desk", 10.0, null),
+            row(3L, "Lamp", 30.0, null)
+        ));
+        
+        // Après (30.0, 1) viennent seulement (30.0, 3) ; avant (30.0, 3) viennent (10.0, 2) et (30.0, 1)
+        assertEquals(2, columns.position(ProductColumns.SortField.PRICE, 30.0, 1L, false));
+        assertEquals(2, columns.position(ProductColumns.SortField.PRICE, 30.0, 3L, true));
+        assertEquals(1, columns.position(ProductColumns.SortField.NAME, "Chair", 1L, false));
+    }
+    
+    @Test
+    void range_ShouldBoundPermutationSliceInclusively() {
+        ProductColumns columns = ProductColumns.build(List.of(
+            row(1L, "Chair", 30.0, null),
+            row(2L, "Desk", 10.0, 4.0),
+            row(3L, "Lamp", 30.0, 2.0),
+            row(4L, "Sofa", 50.0, 5.0)
+        ));
+        
+        int[] prices = columns.range(ProductColumns.SortField.PRICE, 30.0, 50.0);
+        int[] ratings = columns.range(ProductColumns.SortField.RATING, 4.0, null);
+        
+        assertArrayEquals(new int[] {1, 4}, prices);
+        // Le produit sans note est exclu par la borne basse
+        assertArrayEquals(new int[] {2, 4}, ratings);
+        assertArrayEquals(new int[] {3, 3}, columns.range(ProductColumns.SortField.PRICE, 40.0, 45.0));
+        assertEquals(1, columns.rank(ProductColumns.SortField.PRICE, columns.rowOf(1L)));
+    }
+    
+    private static List<Long> ids(ProductColumns columns, ProductColumns.SortField field) {
+        return Arrays.stream(columns.permutation(field)).mapToObj(columns::id).toList();
+    }
+    
+    private static ProductColumns.Row row(long id, String name, double price, Double rating) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("CODE-" + id);
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(1);
+        product.setRating(rating);
+        product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        product.setCreatedAt(0L);
+        product.setUpdatedAt(0L);
+        return ProductColumns.Row.of(product, 1);
+    }
+}
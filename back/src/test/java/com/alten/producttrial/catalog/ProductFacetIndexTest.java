@@ -0,0 +1,121 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.dto.ProductFacets;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+    
+    @Mock
+    private ProductRepository productRepository;
+    
+    private ProductFacetIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getFacets().setPriceBounds(List.of(50.0, 100.0));
+        appProperties.getFacets().setRatingBounds(List.of(4.0));
+        index = new ProductFacetIndex(productRepository, appProperties);
+        
+        when(productRepository.findAll()).thenReturn(Arrays.asList(
+            product(1L, "Accessories", Product.InventoryStatus.INSTOCK, 65.0, 5.0),
+            product(2L, "Accessories", Product.InventoryStatus.LOWSTOCK, 15.0, 3.0),
+            product(3L, "Fitness", Product.InventoryStatus.INSTOCK, 120.0, null)
+        ));
+        index.rebuild();
+    }
+    
+    @Test
+    void facets_WithoutFilter_ShouldCountAllProducts() {
+        ProductFacets facets = index.facets(null, null);
+        
+        assertEquals(3, facets.getTotal());
+        assertEquals(Map.of("Accessories", 2L, "Fitness", 1L), facets.getCategories());
+        assertEquals(2L, facets.getInventoryStatuses().get(Product.InventoryStatus.INSTOCK));
+        assertEquals(1L, facets.getInventoryStatuses().get(Product.InventoryStatus.LOWSTOCK));
+        assertEquals(0L, facets.getInventoryStatuses().get(Product.InventoryStatus.OUTOFSTOCK));
+        assertEquals(List.of(1L, 1L, 1L), counts(facets.getPriceRanges()));
+        assertEquals(List.of(1L, 1L), counts(facets.getRatings()));
+    }
+    
+    @Test
+    void facets_Buckets_ShouldExposeOpenEndedBounds() {
+        List<ProductFacets.Bucket> prices = index.facets(null, null).getPriceRanges();
+        
+        assertNull(prices.get(0).getFrom());
+        assertEquals(50.0, prices.get(0).getTo());
+        assertEquals(50.0, prices.get(1).getFrom());
+        assertEquals(100.0, prices.get(1).getTo());
+        assertEquals(100.0, prices.get(2).getFrom());
+        assertNull(prices.get(2).getTo());
+    }
+    
+    @Test
+    void facets_WithCategoryAndIds_ShouldCountOnlyRetainedProducts() {
+        assertEquals(2, index.facets(List.of("Accessories"), null).getTotal());
+        
+        ProductFacets facets = index.facets(List.of("Accessories"), new long[]{2L, 3L});
+        assertEquals(1, facets.getTotal());
+        assertEquals(Map.of("Accessories", 1L), facets.getCategories());
+        
+        assertEquals(0, index.facets(List.of(), null).getTotal());
+    }
+    
+    @Test
+    void onProductChanged_SavedAndDeleted_ShouldUpdateCountsIncrementally() {
+        Product moved = product(3L, "Accessories", Product.InventoryStatus.OUTOFSTOCK, 80.0, 4.5);
+        index.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, moved));
+        
+        ProductFacets facets = index.facets(null, null);
+        assertEquals(3, facets.getTotal());
+        assertEquals(Map.of("Accessories", 3L), facets.getCategories());
+        assertEquals(1L, facets.getInventoryStatuses().get(Product.InventoryStatus.OUTOFSTOCK));
+        assertEquals(List.of(1L, 2L, 0L), counts(facets.getPriceRanges()));
+        
+        index.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.DELETED, moved));
+        
+        facets = index.facets(null, null);
+        assertEquals(2, facets.getTotal());
+        assertEquals(List.of(1L, 1L), counts(facets.getRatings()));
+        verify(productRepository, times(1)).findAll();
+    }
+    
+    @Test
+    void bucket_ShouldIncludeLowerBoundAndExcludeUpperBound() {
+        double[] bounds = {25.0, 50.0};
+        
+        assertEquals(0, ProductFacetIndex.bucket(bounds, 10.0));
+        assertEquals(1, ProductFacetIndex.bucket(bounds, 25.0));
+        assertEquals(1, ProductFacetIndex.bucket(bounds, 49.9));
+        assertEquals(2, ProductFacetIndex.bucket(bounds, 50.0));
+    }
+    
+    private static List<Long> counts(List<ProductFacets.Bucket> buckets) {
+        return buckets.stream().map(ProductFacets.Bucket::getCount).toList();
+    }
+    
+    private Product product(Long id, String category, Product.InventoryStatus status, Double price, Double rating) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setInventoryStatus(status);
+        product.setPrice(price);
+        product.setRating(rating);
+        return product;
+    }
+}
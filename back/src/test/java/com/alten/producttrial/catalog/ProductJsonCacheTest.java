@@ -0,0 +1,131 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.config.JacksonConfig;
+import com.alten.producttrial.dto.CartItemResponse;
+import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.model.Product;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJsonCacheTest {
+    
+    private ProductJsonCache cache;
+    private ObjectMapper plainMapper;
+    private ObjectMapper cachingMapper;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new ProductJsonCache(new AppProperties());
+        plainMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        cachingMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .registerModule(new JacksonConfig().productJsonModule(cache));
+    }
+    
+    @Test
+    void serialize_CartItems_ShouldMatchStandardSerialization() throws Exception {
+        // Given
+        ProductResponse product = product(1L, 1000L, "Produit");
+        List<CartItemResponse> items = List.of(new CartItemResponse(10L, product, 2), new CartItemResponse(11L, product, 1));
+        
+        // When
+        String json = cachingMapper.writeValueAsString(items);
+        
+        // Then
+        assertEquals(plainMapper.writeValueAsString(items), json);
+    }
+    
+    @Test
+    void get_SameContent_ShouldSerializeOnce() {
+        // Given
+        AtomicInteger renders = new AtomicInteger();
+        ProductResponse product = product(1L, 1000L, "Produit");
+        
+        // When
+        cache.get(product, () -> render(renders));
+        cache.get(product, () -> render(renders));
+        
+        // Then
+        assertEquals(1, renders.get());
+    }
+    
+    @Test
+    void get_NewerUpdatedAt_ShouldSerializeAgain() throws Exception {
+        // Given
+        cachingMapper.writeValueAsString(product(1L, 1000L, "Ancien nom"));
+        
+        // When
+        String json = cachingMapper.writeValueAsString(product(1L, 2000L, "Nouveau nom"));
+        
+        // Then
+        assertTrue(json.contains("Nouveau nom"));
+    }
+    
+    @Test
+    void get_SameUpdatedAtWithOtherContent_ShouldSerializeAgain() throws Exception {
+        // Given : fragment d'une lecture concurrente, mis en cache pour l'ancien contenu
+        cachingMapper.writeValueAsString(product(1L, 1000L, "Ancien nom"));
+        
+        // When : réponse d'écriture construite avant le flush, updatedAt pas encore modifié
+        String json = cachingMapper.writeValueAsString(product(1L, 1000L, "Nouveau nom"));
+        
+        // Then
+        assertTrue(json.contains("Nouveau nom"));
+    }
+    
+    @Test
+    void serialize_ShouldKeepMapperGeneratorFeatures() throws Exception {
+        // Given
+        ObjectMapper escapingMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .registerModule(new JacksonConfig().productJsonModule(cache));
+        escapingMapper.getFactory().configure(JsonWriteFeature.ESCAPE_NON_ASCII.mappedFeature(), true);
+        
+        // When
+        String json = escapingMapper.writeValueAsString(product(1L, 1000L, "Écran"));
+        
+        // Then
+        assertTrue(json.contains("\\u00C9cran"), json);
+    }
+    
+    @Test
+    void onProductChanged_ShouldEvictFragment() {
+        // Given
+        AtomicInteger renders = new AtomicInteger();
+        ProductResponse response = product(1L, 1000L, "Produit");
+        cache.get(response, () -> render(renders));
+        Product product = new Product();
+        product.setId(1L);
+        
+        // When
+        cache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, product));
+        cache.get(response, () -> render(renders));
+        
+        // Then
+        assertEquals(2, renders.get());
+    }
+    
+    private static ProductResponse product(Long id, Long updatedAt, String name) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setCode("P-" + id);
+        product.setName(name);
+        product.setPrice(9.99);
+        product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        product.setCreatedAt(1000L);
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+    
+    private static String render(AtomicInteger renders) {
+        renders.incrementAndGet();
+        return "{}";
+    }
+}
@@ -0,0 +1,70 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.catalog.ProductResponseCache.CachedResponse;
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductResponseCacheTest {
+    
+    private ProductResponseCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new ProductResponseCache(new AppProperties());
+    }
+    
+    @Test
+    void get_SameVersionAndKey_ShouldSerializeOnce() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        long version = cache.currentVersion();
+        
+        // When
+        CachedResponse first = cache.get(version, "list?page=0", () -> load(loads));
+        CachedResponse second = cache.get(version, "list?page=0", () -> load(loads));
+        
+        // Then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    void onProductChanged_ShouldBumpVersionAndDropResponses() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        long version = cache.currentVersion();
+        String etag = cache.catalogEtag(version, null);
+        cache.get(version, "list?page=0", () -> load(loads));
+        
+        // When
+        Product product = new Product();
+        product.setId(1L);
+        cache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, product));
+        long newVersion = cache.currentVersion();
+        cache.get(newVersion, "list?page=0", () -> load(loads));
+        
+        // Then
+        assertNotEquals(version, newVersion);
+        assertNotEquals(etag, cache.catalogEtag(newVersion, null));
+        assertEquals(2, loads.get());
+    }
+    
+    @Test
+    void catalogEtag_ShouldDistinguishVariants() {
+        long version = cache.currentVersion();
+        
+        assertNotEquals(cache.catalogEtag(version, "full"), cache.catalogEtag(version, "full-ndjson"));
+        assertTrue(cache.catalogEtag(version, null).startsWith("\""));
+    }
+    
+    private static CachedResponse load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new CachedResponse("\"etag\"", new byte[] {'[', ']'});
+    }
+}
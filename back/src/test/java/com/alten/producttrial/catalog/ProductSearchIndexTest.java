@@ -0,0 +1,172 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+    
+    @Mock
+    private ProductRepository productRepository;
+    
+    private AppProperties appProperties;
+    private ProductSearchIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        index = new ProductSearchIndex(productRepository, appProperties);
+        
+        when(productRepository.findAll()).thenReturn(Arrays.asList(
+            product(1L, "f230fh0g3", "Bamboo Watch", "Product Description"),
+            product(2L, "nvklal433", "Black Watch", "Elegant watch"),
+            product(3L, "zz21cz3c1", "Blue Band", null)
+        ));
+        index.rebuild();
+    }
+    
+    @Test
+    void findCandidates_WholeToken_ShouldReturnMatchingProducts() {
+        assertArrayEquals(new long[]{1L, 2L}, index.findCandidates("Watch"));
+    }
+    
+    @Test
+    void findCandidates_PartialToken_ShouldKeepSubstringSemantics() {
+        // "atc" est contenu dans "watch", "lue" dans "blue"
+        assertArrayEquals(new long[]{1L, 2L}, index.findCandidates("atc"));
+        assertArrayEquals(new long[]{3L}, index.findCandidates("lue"));
+        assertArrayEquals(new long[]{1L, 2L}, index.findCandidates("wat"));
+        assertArrayEquals(new long[]{1L}, index.findCandidates("oo"));
+    }
+    
+    @Test
+    void findCandidates_SeveralTokens_ShouldIntersectPostings() {
+        assertArrayEquals(new long[]{2L}, index.findCandidates("black watch"));
+        assertArrayEquals(new long[0], index.findCandidates("blue watch"));
+    }
+    
+    @Test
+    void findCandidates_CodeAndDescription_ShouldBeIndexed() {
+        assertArrayEquals(new long[]{3L}, index.findCandidates("ZZ21CZ3C1"));
+        assertArrayEquals(new long[]{2L}, index.findCandidates("elegant"));
+    }
+    
+    @Test
+    void findCandidates_WithoutToken_ShouldReturnNull() {
+        assertNull(index.findCandidates("%-"));
+    }
+    
+    @Test
+    void findCandidates_TooManyCandidates_ShouldReturnNull() {
+        appProperties.getSearch().setMaxCandidates(1);
+        assertNull(index.findCandidates("watch"));
+    }
+    
+    @Test
+    void findMatches_SingleToken_ShouldReturnExactMatches() {
+        assertArrayEquals(new long[]{1L, 2L}, index.findMatches("atc"));
+    }
+    
+    @Test
+    void findMatches_SeveralTokens_ShouldReturnNull() {
+        // "black watch" ne garantit pas la contiguïté des deux termes : seul le LIKE tranche
+        assertNull(index.findMatches("black watch"));
+        assertNull(index.findMatches("watch-"));
+    }
+    
+    @Test
+    void findMatches_UncommittedWrite_ShouldReturnNullUntilCompletion() {
+        Product updated = product(3L, "zz21cz3c1", "Blue Clock", null);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, updated));
+            // Le renommage n'est pas validé : seule la base tranche
+            assertNull(index.findMatches("clock"));
+            assertNull(index.findMatches("band"));
+            assertArrayEquals(new long[]{1L, 2L}, index.findMatches("watch"));
+            
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertArrayEquals(new long[0], index.findMatches("clock"));
+        assertArrayEquals(new long[]{3L}, index.findMatches("band"));
+    }
+    
+    @Test
+    void onProductChanged_SavedAndDeleted_ShouldUpdatePostings() {
+        Product updated = product(3L, "zz21cz3c1", "Blue Watch", null);
+        index.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, updated));
+        
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.findCandidates("watch"));
+        assertArrayEquals(new long[0], index.findCandidates("band"));
+        
+        index.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.DELETED, updated));
+        
+        assertArrayEquals(new long[]{1L, 2L}, index.findCandidates("watch"));
+        assertArrayEquals(new long[0], index.findCandidates("blue"));
+    }
+    
+    @Test
+    void onProductChanged_RolledBack_ShouldRestoreCommittedTerms() {
+        Product updated = product(3L, "zz21cz3c1", "Blue Clock", null);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, updated));
+            // Écriture en cours : anciens et nouveaux termes restent visibles
+            assertArrayEquals(new long[]{3L}, index.findCandidates("clock"));
+            assertArrayEquals(new long[]{3L}, index.findCandidates("band"));
+            
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertArrayEquals(new long[0], index.findCandidates("clock"));
+        assertArrayEquals(new long[]{3L}, index.findCandidates("band"));
+    }
+    
+    @Test
+    void onProductChanged_Committed_ShouldDropReplacedTerms() {
+        Product updated = product(3L, "zz21cz3c1", "Blue Clock", null);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SAVED, updated));
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertArrayEquals(new long[]{3L}, index.findCandidates("lock"));
+        assertArrayEquals(new long[0], index.findCandidates("band"));
+    }
+    
+    private Product product(Long id, String code, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode(code);
+        product.setName(name);
+        product.setDescription(description);
+        return product;
+    }
+}
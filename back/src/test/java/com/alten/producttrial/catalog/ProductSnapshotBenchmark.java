@@ -0,0 +1,125 @@
+package com.alten.producttrial.catalog;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.dto.ProductFilter;
+import com.alten.producttrial.dto.ProductSummary;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Mesure le temps de réponse des listes servies par {@link ProductSnapshot} sur un catalogue d'un million
+ * de produits : page profonde triée sans filtre, pages filtrées par catégorie et par bornes de prix et de note,
+ * page par clé.
+ *
+ * Lancement : mvn test-compile puis exécuter {@link #main(String[])} avec le classpath de test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProductSnapshotBenchmark {
+    
+    private static final int PRODUCTS = 1_000_000;
+    private static final String[] CATEGORIES = {"Accessories", "Clothing", "Electronics", "Fitness"};
+    
+    private JdbcTemplate jdbcTemplate;
+    private ProductSnapshot snapshot;
+    private Pageable deepPage;
+    
+    @Setup
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:snapshotbench;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE categories (id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL UNIQUE)");
+        CategoryDictionary dictionary = new CategoryDictionary(dataSource);
+        for (String category : CATEGORIES) {
+            dictionary.getOrCreate(category);
+        }
+        
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.streamAllByOrderById()).thenReturn(LongStream.rangeClosed(1, PRODUCTS).mapToObj(this::product));
+        // Index de recherche non construit : les recherches parcourent l'instantané
+        ProductSearchIndex searchIndex = new ProductSearchIndex(repository, new AppProperties());
+        snapshot = new ProductSnapshot(repository, dictionary, searchIndex, mock(EntityManager.class, withSettings().stubOnly()));
+        snapshot.rebuild();
+        
+        deepPage = PageRequest.of(PRODUCTS / 40, 20, Sort.by("price").descending());
+    }
+    
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE categories");
+    }
+    
+    @Benchmark
+    public Page<ProductSummary> page_sortedDeep() {
+        return snapshot.findPage(ProductSummary.class, deepPage, new ProductFilter()).orElseThrow();
+    }
+    
+    @Benchmark
+    public Page<ProductSummary> page_category() {
+        return snapshot.findPage(ProductSummary.class, PageRequest.of(0, 20, Sort.by("name")),
+                new ProductFilter("fitness", null, null, null, null, null))
+                .orElseThrow();
+    }
+    
+    @Benchmark
+    public List<ProductSummary> seek_price() {
+        return snapshot.findSeek(ProductSummary.class, new ProductFilter(), "price", Sort.Direction.ASC, 500.0, 0L, 21)
+                .orElseThrow();
+    }
+    
+    @Benchmark
+    public Page<ProductSummary> page_priceRatingStatus() {
+        return snapshot.findPage(ProductSummary.class, PageRequest.of(0, 20, Sort.by("name")),
+                new ProductFilter("fitness", null, 100.0, 120.0, 4.0, Product.InventoryStatus.INSTOCK)).orElseThrow();
+    }
+    
+    @Benchmark
+    public Page<ProductSummary> page_wideRangeSortedByPrice() {
+        return snapshot.findPage(ProductSummary.class, PageRequest.of(10, 20, Sort.by("price")),
+                new ProductFilter(null, null, 10.0, 900.0, null, null)).orElseThrow();
+    }
+    
+    private Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("P-" + id);
+        product.setName("Product " + (id * 7919 % PRODUCTS));
+        product.setCategory(CATEGORIES[(int) (id % CATEGORIES.length)]);
+        product.setPrice((double) (id * 31 % 1000));
+        product.setQuantity((int) (id % 100));
+        product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        product.setRating(id % 5 == 0 ? null : (double) (id % 5));
+        product.setCreatedAt(id);
+        product.setUpdatedAt(id);
+        return product;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
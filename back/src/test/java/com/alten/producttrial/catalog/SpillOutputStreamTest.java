@@ -0,0 +1,45 @@
+package com.alten.producttrial.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillOutputStreamTest {
+    
+    @Test
+    void write_UnderLimit_ShouldKeepOutputInMemory() throws Exception {
+        // Given
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        SpillOutputStream output = new SpillOutputStream(10, target);
+        
+        // When
+        output.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        output.close();
+        
+        // Then
+        assertFalse(output.isSpilled());
+        assertEquals("0123456789", new String(output.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(0, target.size());
+    }
+    
+    @Test
+    void write_OverLimit_ShouldCopyBufferThenWriteThrough() throws Exception {
+        // Given
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        SpillOutputStream output = new SpillOutputStream(10, target);
+        
+        // When
+        output.write("01234".getBytes(StandardCharsets.UTF_8));
+        output.write("56789A".getBytes(StandardCharsets.UTF_8));
+        output.write('B');
+        
+        // Then
+        assertTrue(output.isSpilled());
+        assertEquals("0123456789AB", target.toString(StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, output::toByteArray);
+    }
+}
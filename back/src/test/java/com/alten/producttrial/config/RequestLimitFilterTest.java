@@ -0,0 +1,96 @@
+package com.alten.producttrial.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLimitFilterTest {
+    
+    private SimpleMeterRegistry registry;
+    private RequestLimitFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        AppProperties.RequestLimit settings = new AppProperties.RequestLimit();
+        settings.setMaxInFlight(1);
+        settings.setQueueTimeout(Duration.ofMillis(50));
+        registry = new SimpleMeterRegistry();
+        filter = new RequestLimitFilter(settings, new ObjectMapper().registerModule(new JavaTimeModule()), registry);
+    }
+    
+    @Test
+    void doFilter_UnderLimit_ShouldPassThroughAndReleasePermit() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        FilterChain chain = (request, response) -> calls.incrementAndGet();
+        
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/cart"), new MockHttpServletResponse(), chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/cart"), new MockHttpServletResponse(), chain);
+        
+        // Then
+        assertEquals(2, calls.get());
+        assertEquals(0.0, registry.get("http.server.requests.in-flight").gauge().value());
+        assertEquals(0.0, registry.get("http.server.requests.rejected").counter().count());
+    }
+    
+    @Test
+    void doFilter_LimitReached_ShouldReturn503AfterQueueTimeout() throws Exception {
+        // Given : une requête occupe l'unique place
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/cart"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            entered.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger calls = new AtomicInteger();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/cart"), response, (req, res) -> calls.incrementAndGet());
+        release.countDown();
+        holder.join();
+        
+        // Then
+        assertEquals(0, calls.get());
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains("\"status\":503"));
+        assertEquals(1.0, registry.get("http.server.requests.rejected").counter().count());
+    }
+    
+    @Test
+    void defaults_ShouldMatchDocumentedSettings() {
+        // Given
+        AppProperties.RequestLimit defaults = new AppProperties.RequestLimit();
+        
+        // Then : mêmes valeurs que app.request-limit.* dans application.properties
+        assertEquals(40, defaults.getMaxInFlight());
+        assertEquals(Duration.ofSeconds(3), defaults.getQueueTimeout());
+    }
+}
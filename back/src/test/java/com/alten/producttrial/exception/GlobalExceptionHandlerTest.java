@@ -2,9 +2,11 @@ package com.alten.producttrial.exception;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -43,6 +45,39 @@ class GlobalExceptionHandlerTest {
         assertNotNull(response.getBody().getTimestamp());
     }
     
+    @Test
+    void handleDatabaseUnavailableException_ShouldReturn503WithRetryAfter() {
+        // Given
+        CannotCreateTransactionException exception = new CannotCreateTransactionException(
+            "Could not open JPA EntityManager for transaction");
+        
+        // When
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> response = 
+            handler.handleDatabaseUnavailableException(exception);
+        
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertEquals(503, response.getBody().getStatus());
+    }
+    
+    @Test
+    void handleServiceOverloadedException_ShouldReturn503WithRetryAfter() {
+        // Given
+        ServiceOverloadedException exception = new ServiceOverloadedException("Too many authentication requests, retry later");
+        
+        // When
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> response = 
+            handler.handleServiceOverloadedException(exception);
+        
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertEquals(503, response.getBody().getStatus());
+    }
+    
     @Test
     void handleDuplicateResourceException_ShouldReturn409() {
         // Given
@@ -77,6 +112,23 @@ class GlobalExceptionHandlerTest {
         assertNotNull(response.getBody().getTimestamp());
     }
     
+    @Test
+    void handleInvalidRequestException_ShouldReturn400() {
+        // Given
+        InvalidRequestException exception = new InvalidRequestException("Invalid cursor");
+        
+        // When
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> response = 
+            handler.handleInvalidRequestException(exception);
+        
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(400, response.getBody().getStatus());
+        assertEquals("Invalid cursor", response.getBody().getMessage());
+        assertNotNull(response.getBody().getTimestamp());
+    }
+    
     @Test
     void handleAuthenticationException_BadCredentials_ShouldReturn401() {
         // Given
@@ -4,6 +4,9 @@ import com.alten.producttrial.dto.LoginRequest;
 import com.alten.producttrial.dto.RegisterRequest;
 import com.alten.producttrial.model.User;
 import com.alten.producttrial.repository.UserRepository;
+import com.alten.producttrial.security.JwtUtil;
+import com.alten.producttrial.security.TokenRevocationRegistry;
+import com.alten.producttrial.security.UserPrincipal;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +20,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +43,12 @@ class AuthControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+    
     private User testUser;
     
     @BeforeEach
@@ -49,7 +60,7 @@ class AuthControllerIntegrationTest {
         testUser.setFirstname("Test");
         testUser.setEmail("test@example.com");
         testUser.setPassword(passwordEncoder.encode("password123"));
-        userRepository.save(testUser);
+        testUser = userRepository.save(testUser);
     }
     
     @Test
@@ -152,6 +163,33 @@ class AuthControllerIntegrationTest {
             .andExpect(jsonPath("$.message", is("Email ou mot de passe incorrect")));
     }
     
+    @Test
+    void login_AfterRegisteringPreviouslyUnknownEmail_ShouldSucceed() throws Exception {
+        LoginRequest unknown = new LoginRequest();
+        unknown.setEmail("late@example.com");
+        unknown.setPassword("password123");
+        mockMvc.perform(post("/api/token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(unknown)))
+            .andExpect(status().isUnauthorized());
+        
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("lateuser");
+        request.setFirstname("Late");
+        request.setEmail("late@example.com");
+        request.setPassword("password123");
+        mockMvc.perform(post("/api/account")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated());
+        // L'INSERT (identifiant de séquence) n'est émis qu'au flush, qui publie l'événement de création :
+        // hors transaction de test, le commit de save() s'en charge
+        userRepository.flush();
+        
+        // L'email mis en cache comme inconnu est évincé par la création du compte
+        assertFalse(login("late@example.com", "password123").isEmpty());
+    }
+    
     @Test
     void login_InvalidData_ShouldReturn400() throws Exception {
         LoginRequest request = new LoginRequest();
@@ -163,4 +201,61 @@ class AuthControllerIntegrationTest {
             .andExpect(status().isBadRequest())
             .andExpect(jsonPath("$.errors").exists());
     }
+    
+    @Test
+    void login_ValidCredentials_ShouldEmbedUserIdAndRolesInToken() throws Exception {
+        String token = login("test@example.com", "password123");
+        
+        UserPrincipal principal = jwtUtil.extractPrincipal(token);
+        assertNotNull(principal);
+        assertEquals(testUser.getId(), principal.getId());
+        assertEquals("test@example.com", principal.getUsername());
+        assertTrue(principal.getRoles().contains(UserPrincipal.ROLE_USER));
+        assertFalse(principal.getRoles().contains(UserPrincipal.ROLE_ADMIN));
+    }
+    
+    @Test
+    void revokedUser_StatelessToken_ShouldBeRejected() throws Exception {
+        String token = login("test@example.com", "password123");
+        
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk());
+        
+        tokenRevocationRegistry.revokeUser(testUser.getId());
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void updatedUser_StatelessToken_ShouldBeRejected() throws Exception {
+        String token = login("test@example.com", "password123");
+        
+        testUser.setFirstname("Renamed");
+        userRepository.saveAndFlush(testUser);
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void deletedUser_StatelessToken_ShouldBeRejected() throws Exception {
+        String token = login("test@example.com", "password123");
+        
+        userRepository.delete(testUser);
+        userRepository.flush();
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+    
+    private String login(String email, String password) throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        
+        String response = mockMvc.perform(post("/api/token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
 }
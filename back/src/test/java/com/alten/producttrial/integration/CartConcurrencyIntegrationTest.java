@@ -0,0 +1,203 @@
+package com.alten.producttrial.integration;
+
+import com.alten.producttrial.config.CacheConfig;
+import com.alten.producttrial.dto.CartOperation;
+import com.alten.producttrial.model.CartItem;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.model.User;
+import com.alten.producttrial.repository.CartItemRepository;
+import com.alten.producttrial.repository.ProductRepository;
+import com.alten.producttrial.repository.UserRepository;
+import com.alten.producttrial.service.CartService;
+import com.alten.producttrial.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Les ajouts concurrents doivent chacun valider leur propre transaction : ces tests ne sont pas
+ * transactionnels et suppriment eux-mêmes les données qu'ils créent.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartConcurrencyIntegrationTest {
+    
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 25;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Long userId;
+    private Long productId;
+    
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("concurrent");
+        user.setFirstname("Concurrent");
+        user.setEmail("concurrent@example.com");
+        user.setPassword("password123");
+        userId = userRepository.save(user).getId();
+        
+        Product product = new Product();
+        product.setCode("CONC-001");
+        product.setName("Concurrent Product");
+        product.setCategory("Electronics");
+        product.setPrice(10.0);
+        product.setQuantity(100);
+        product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        productId = productRepository.save(product).getId();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAll(cartItemRepository.findByUserId(userId));
+        productRepository.deleteById(productId);
+        userRepository.deleteById(userId);
+    }
+    
+    @Test
+    void addToCart_ConcurrentAddsOfSameProduct_ShouldNotLoseUpdates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        cartService.addToCart(userId, productId, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        List<CartItem> items = cartItemRepository.findByUserId(userId);
+        assertEquals(1, items.size());
+        assertEquals(THREADS * ADDS_PER_THREAD, items.get(0).getQuantity());
+    }
+    
+    @Test
+    void applyBatch_ConcurrentWithAddToCart_ShouldNotLoseUpdates() throws Exception {
+        cartService.addToCart(userId, productId, 1);
+        List<CartOperation> batch = List.of(new CartOperation(CartOperation.Type.ADD, productId, 1));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                boolean useBatch = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        if (useBatch) {
+                            cartService.applyBatch(userId, batch);
+                        } else {
+                            cartService.addToCart(userId, productId, 1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        List<CartItem> items = cartItemRepository.findByUserId(userId);
+        assertEquals(1, items.size());
+        assertEquals(1 + THREADS * ADDS_PER_THREAD, items.get(0).getQuantity());
+    }
+    
+    @Test
+    void applyBatch_ConcurrentOnEmptyCart_ShouldNotLoseUpdates() throws Exception {
+        List<CartOperation> batch = List.of(new CartOperation(CartOperation.Type.ADD, productId, 1));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            // Chaque tour repart d'un panier vide : les premiers ajouts des lots et de addToCart se disputent l'INSERT
+            for (int round = 0; round < ADDS_PER_THREAD; round++) {
+                cartItemRepository.deleteAll(cartItemRepository.findByUserId(userId));
+                CountDownLatch start = new CountDownLatch(1);
+                futures.clear();
+                for (int t = 0; t < THREADS; t++) {
+                    boolean useBatch = t % 2 == 0;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        if (useBatch) {
+                            cartService.applyBatch(userId, batch);
+                        } else {
+                            cartService.addToCart(userId, productId, 1);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                
+                List<CartItem> items = cartItemRepository.findByUserId(userId);
+                assertEquals(1, items.size());
+                assertEquals(THREADS, items.get(0).getQuantity());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void addToCart_ShouldNotEvictProductsFromSecondLevelCache() {
+        productService.getProductById(productId);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        cartService.addToCart(userId, productId, 1);
+        productService.getProductById(productId);
+        
+        assertEquals(0, statistics.getDomainDataRegionStatistics(CacheConfig.PRODUCT_REGION).getMissCount());
+    }
+}
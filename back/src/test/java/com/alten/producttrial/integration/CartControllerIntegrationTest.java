@@ -1,6 +1,9 @@
 package com.alten.producttrial.integration;
 
+import com.alten.producttrial.dto.CartBatchRequest;
 import com.alten.producttrial.dto.CartItemRequest;
+import com.alten.producttrial.dto.CartItemResponse;
+import com.alten.producttrial.dto.CartOperation;
 import com.alten.producttrial.model.CartItem;
 import com.alten.producttrial.model.Product;
 import com.alten.producttrial.model.User;
@@ -8,22 +11,31 @@ import com.alten.producttrial.repository.CartItemRepository;
 import com.alten.producttrial.repository.ProductRepository;
 import com.alten.producttrial.repository.UserRepository;
 import com.alten.producttrial.security.JwtUtil;
+import com.alten.producttrial.service.CartService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,6 +45,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Transactional
 class CartControllerIntegrationTest {
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     @Autowired
     private MockMvc mockMvc;
     
@@ -54,6 +69,12 @@ class CartControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
     private User testUser;
     private Product testProduct;
     private CartItem testCartItem;
@@ -134,6 +155,30 @@ class CartControllerIntegrationTest {
             .andExpect(jsonPath("$.product.id", is(newProduct.getId().intValue())));
     }
     
+    @Test
+    void addToCart_ProductDeletedAfterLookup_ShouldReturn404() throws Exception {
+        Product newProduct = new Product();
+        newProduct.setCode("PROD-002");
+        newProduct.setName("New Product");
+        newProduct.setCategory("Electronics");
+        newProduct.setPrice(49.99);
+        newProduct.setQuantity(5);
+        newProduct.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        newProduct = productRepository.saveAndFlush(newProduct);
+        // Ligne supprimée sans passer par JPA : la lecture du produit le trouve encore, le MERGE viole la clé étrangère
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", newProduct.getId());
+        
+        CartItemRequest request = new CartItemRequest();
+        request.setProductId(newProduct.getId());
+        request.setQuantity(1);
+        
+        mockMvc.perform(post("/api/cart/add")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isNotFound());
+    }
+    
     @Test
     void addToCart_ExistingItem_ShouldUpdateQuantity() throws Exception {
         CartItemRequest request = new CartItemRequest();
@@ -220,4 +265,172 @@ class CartControllerIntegrationTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$", hasSize(0)));
     }
+    
+    @Test
+    void getCartItems_ManyItems_ShouldLoadInAtMostTwoQueries() {
+        for (int i = 2; i <= 6; i++) {
+            Product product = new Product();
+            product.setCode("PROD-00" + i);
+            product.setName("Product " + i);
+            product.setCategory("Electronics");
+            product.setPrice(10.0 * i);
+            product.setQuantity(10);
+            product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+            product = productRepository.save(product);
+            
+            CartItem item = new CartItem();
+            item.setUser(testUser);
+            item.setProduct(product);
+            item.setQuantity(1);
+            cartItemRepository.save(item);
+        }
+        // Repartir d'un contexte de persistance vide pour mesurer les requêtes réellement émises
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        List<CartItemResponse> items = cartService.getCartItems(testUser.getId());
+        
+        assertEquals(6, items.size());
+        assertTrue(items.stream().allMatch(response -> response.getProduct().getName() != null));
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Requêtes émises : " + statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void getCartItems_ShouldEmbedSameProductJsonAsProductEndpoint() throws Exception {
+        String productJson = mockMvc.perform(get("/api/products/{id}", testProduct.getId()))
+            .andReturn().getResponse().getContentAsString();
+        
+        // Deux lectures : la seconde réutilise le fragment mis en cache par la première
+        for (int i = 0; i < 2; i++) {
+            String cartJson = mockMvc.perform(get("/api/cart")
+                    .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            assertEquals(objectMapper.readTree(productJson), objectMapper.readTree(cartJson).get(0).get("product"));
+        }
+    }
+    
+    @Test
+    void getCartItems_AfterProductUpdate_ShouldNotServeStaleProductJson() throws Exception {
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + authToken))
+            .andExpect(jsonPath("$[0].product.name", is("Test Product")));
+        
+        testProduct.setName("Renamed Product");
+        productRepository.saveAndFlush(testProduct);
+        
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + authToken))
+            .andExpect(jsonPath("$[0].product.name", is("Renamed Product")));
+    }
+    
+    @Test
+    void applyBatch_MixedOperations_ShouldReturnResultingCart() throws Exception {
+        Product secondProduct = saveProduct("PROD-002");
+        Product thirdProduct = saveProduct("PROD-003");
+        CartBatchRequest request = new CartBatchRequest(List.of(
+            new CartOperation(CartOperation.Type.ADD, testProduct.getId(), 1),
+            new CartOperation(CartOperation.Type.ADD, secondProduct.getId(), 4),
+            new CartOperation(CartOperation.Type.UPDATE, secondProduct.getId(), 2),
+            new CartOperation(CartOperation.Type.ADD, thirdProduct.getId(), 1),
+            new CartOperation(CartOperation.Type.REMOVE, thirdProduct.getId(), null)));
+        
+        mockMvc.perform(post("/api/cart/batch")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].product.id", is(testProduct.getId().intValue())))
+            .andExpect(jsonPath("$[0].quantity", is(3)))
+            .andExpect(jsonPath("$[1].product.id", is(secondProduct.getId().intValue())))
+            .andExpect(jsonPath("$[1].id", notNullValue()))
+            .andExpect(jsonPath("$[1].quantity", is(2)));
+    }
+    
+    @Test
+    void applyBatch_RemoveThenAddSameProduct_ShouldKeepOneItem() throws Exception {
+        CartBatchRequest request = new CartBatchRequest(List.of(
+            new CartOperation(CartOperation.Type.REMOVE, testProduct.getId(), null),
+            new CartOperation(CartOperation.Type.ADD, testProduct.getId(), 5)));
+        
+        mockMvc.perform(post("/api/cart/batch")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id", is(testCartItem.getId().intValue())))
+            .andExpect(jsonPath("$[0].quantity", is(5)));
+        
+        entityManager.flush();
+        entityManager.clear();
+        List<CartItem> items = cartItemRepository.findByUserId(testUser.getId());
+        assertEquals(1, items.size());
+        assertEquals(5, items.get(0).getQuantity());
+    }
+    
+    @Test
+    void applyBatch_UnknownProduct_ShouldReturn404() throws Exception {
+        CartBatchRequest request = new CartBatchRequest(List.of(
+            new CartOperation(CartOperation.Type.ADD, 999L, 1)));
+        
+        mockMvc.perform(post("/api/cart/batch")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void applyBatch_MissingQuantity_ShouldReturn400() throws Exception {
+        CartBatchRequest request = new CartBatchRequest(List.of(
+            new CartOperation(CartOperation.Type.UPDATE, testProduct.getId(), null)));
+        
+        mockMvc.perform(post("/api/cart/batch")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void applyBatch_ManyUpdates_ShouldReuseOneBatchedStatement() {
+        List<CartOperation> operations = new ArrayList<>();
+        operations.add(new CartOperation(CartOperation.Type.UPDATE, testProduct.getId(), 7));
+        for (int i = 2; i <= 6; i++) {
+            Product product = saveProduct("PROD-00" + i);
+            CartItem item = new CartItem();
+            item.setUser(testUser);
+            item.setProduct(product);
+            item.setQuantity(1);
+            cartItemRepository.save(item);
+            operations.add(new CartOperation(CartOperation.Type.UPDATE, product.getId(), 7));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        List<CartItemResponse> items = cartService.applyBatch(testUser.getId(), operations);
+        entityManager.flush();
+        
+        assertEquals(6, items.size());
+        assertTrue(items.stream().allMatch(response -> response.getQuantity() == 7));
+        // Verrou utilisateur, produits, articles, puis un unique UPDATE exécuté en lot
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "Requêtes préparées : " + statistics.getPrepareStatementCount());
+    }
+    
+    private Product saveProduct(String code) {
+        Product product = new Product();
+        product.setCode(code);
+        product.setName("Product " + code);
+        product.setCategory("Electronics");
+        product.setPrice(10.0);
+        product.setQuantity(10);
+        product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        return productRepository.save(product);
+    }
 }
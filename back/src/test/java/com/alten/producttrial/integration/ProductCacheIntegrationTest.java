@@ -0,0 +1,158 @@
+package com.alten.producttrial.integration;
+
+import com.alten.producttrial.config.CacheConfig;
+import com.alten.producttrial.dto.ProductRequest;
+import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.exception.ResourceNotFoundException;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import com.alten.producttrial.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Le cache de second niveau n'intervient qu'entre transactions : ces tests ne sont pas transactionnels
+ * et suppriment eux-mêmes le produit qu'ils créent.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCacheIntegrationTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private Statistics statistics;
+    private Long productId;
+    
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setCode("CACHE-001");
+        product.setName("Cached Product");
+        product.setCategory("Cache");
+        product.setPrice(10.0);
+        product.setQuantity(3);
+        product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        productId = productRepository.save(product).getId();
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (productRepository.existsById(productId)) {
+            productRepository.deleteById(productId);
+        }
+    }
+    
+    @Test
+    void getProductById_RepeatedReads_ShouldBeServedFromSecondLevelCache() {
+        productService.getProductById(productId);
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        
+        productService.getProductById(productId);
+        productService.getProductById(productId);
+        
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(CacheConfig.PRODUCT_REGION).getHitCount() >= 2);
+    }
+    
+    @Test
+    void updateProduct_ShouldReplaceCachedEntry() {
+        productService.getProductById(productId);
+        
+        ProductRequest request = new ProductRequest();
+        request.setCode("CACHE-001");
+        request.setName("Renamed Product");
+        request.setCategory("Cache");
+        request.setPrice(12.0);
+        request.setQuantity(3);
+        request.setInventoryStatus(Product.InventoryStatus.LOWSTOCK);
+        productService.updateProduct(productId, request);
+        
+        assertEquals("Renamed Product", productService.getProductById(productId).getName());
+        assertEquals(12.0, productService.getProductById(productId).getPrice());
+    }
+    
+    @Test
+    void updateProduct_StaleFragmentCachedBeforeSerialization_ShouldSerializeNewContent() throws Exception {
+        ProductResponse before = productService.getProductById(productId);
+        
+        ProductRequest request = new ProductRequest();
+        request.setCode("CACHE-001");
+        request.setName("Renamed Product");
+        request.setCategory("Cache");
+        request.setPrice(12.0);
+        request.setQuantity(3);
+        request.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        ProductResponse updated = productService.updateProduct(productId, request);
+        // Lecture concurrente servie après l'éviction de fin de transaction, avec l'ancien état
+        objectMapper.writeValueAsString(before);
+        
+        String json = objectMapper.writeValueAsString(updated);
+        
+        assertTrue(json.contains("Renamed Product"), json);
+        assertFalse(json.contains("Cached Product"), json);
+    }
+    
+    @Test
+    void deleteProduct_ShouldEvictCachedEntry() {
+        productService.getProductById(productId);
+        
+        productService.deleteProduct(productId);
+        
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(productId));
+    }
+    
+    @Test
+    void findByCode_RepeatedQuery_ShouldHitQueryCacheUntilProductsChange() {
+        productRepository.findByCode("CACHE-001");
+        productRepository.findByCode("CACHE-001");
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        
+        // Toute écriture sur la table invalide les résultats de requêtes mis en cache
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setQuantity(4);
+        productRepository.save(product);
+        
+        assertEquals(4, productRepository.findByCode("CACHE-001").orElseThrow().getQuantity());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+    
+    @Test
+    void secondLevelCacheRequests_ShouldBeExposedAsMetrics() {
+        productService.getProductById(productId);
+        productService.getProductById(productId);
+        
+        FunctionCounter hits = meterRegistry.find("hibernate.second.level.cache.requests")
+            .tags("region", CacheConfig.PRODUCT_REGION, "result", "hit")
+            .functionCounter();
+        assertNotNull(hits);
+        assertTrue(hits.count() >= 1);
+    }
+}
@@ -6,21 +6,32 @@ import com.alten.producttrial.model.User;
 import com.alten.producttrial.repository.ProductRepository;
 import com.alten.producttrial.repository.UserRepository;
 import com.alten.producttrial.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -48,6 +59,12 @@ class ProductControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     private Product testProduct;
     private User adminUser;
     private String adminToken;
@@ -81,7 +98,8 @@ class ProductControllerIntegrationTest {
         testProduct.setPrice(99.99);
         testProduct.setQuantity(10);
         testProduct.setInventoryStatus(Product.InventoryStatus.INSTOCK);
-        testProduct = productRepository.save(testProduct);
+        // Identifiant issu d'une séquence : l'INSERT n'est plus immédiat, on l'écrit avant les requêtes du test
+        testProduct = productRepository.saveAndFlush(testProduct);
     }
     
     @Test
@@ -257,6 +275,88 @@ class ProductControllerIntegrationTest {
             .andExpect(jsonPath("$.content[*].category", everyItem(is("Electronics"))));
     }
     
+    @Test
+    void getAllProducts_WithCategoryFilterInOtherCase_ShouldMatchDictionaryCategory() throws Exception {
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("category", "ELECTRONICS"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(1)))
+            .andExpect(jsonPath("$.content[0].category", is("Electronics")));
+    }
+    
+    @Test
+    void getAllProducts_WithUnknownCategory_ShouldReturnEmptyPage() throws Exception {
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("category", "Inconnue"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(0)));
+    }
+    
+    @Test
+    void findByCategory_UnknownCategory_ShouldNotCreateIt() {
+        assertTrue(productRepository.findByCategory("Inconnue").isEmpty());
+        
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM categories WHERE name = 'Inconnue'", Integer.class));
+    }
+    
+    @Test
+    void getAllProducts_WithPriceRatingAndStatusFilters_ShouldApplyBounds() throws Exception {
+        Product otherProduct = new Product();
+        otherProduct.setCode("TEST-002");
+        otherProduct.setName("Other Product");
+        otherProduct.setCategory("Electronics");
+        otherProduct.setPrice(29.99);
+        otherProduct.setQuantity(5);
+        otherProduct.setRating(4.5);
+        otherProduct.setInventoryStatus(Product.InventoryStatus.LOWSTOCK);
+        productRepository.saveAndFlush(otherProduct);
+        
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("minPrice", "20")
+                .param("maxPrice", "99.99"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(2)));
+        
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("minRating", "4"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(1)))
+            .andExpect(jsonPath("$.content[0].code", is("TEST-002")));
+        
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("maxPrice", "50")
+                .param("inventoryStatus", "INSTOCK"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(0)));
+    }
+    
+    @Test
+    void getCategories_ShouldListDictionaryCategories() throws Exception {
+        Product otherProduct = new Product();
+        otherProduct.setCode("TEST-002");
+        otherProduct.setName("Other Product");
+        otherProduct.setCategory("Garden");
+        otherProduct.setPrice(29.99);
+        otherProduct.setQuantity(5);
+        otherProduct.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        productRepository.saveAndFlush(otherProduct);
+        
+        mockMvc.perform(get("/api/products/categories"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasItems("Electronics", "Garden")));
+    }
+    
     @Test
     void getAllProducts_WithSearch_ShouldReturnMatchingProducts() throws Exception {
         mockMvc.perform(get("/api/products")
@@ -266,4 +366,234 @@ class ProductControllerIntegrationTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.content[*].name", everyItem(containsStringIgnoringCase("Test"))));
     }
+    
+    @Test
+    void getAllProducts_WithSearch_ShouldOnlyReturnIndexedMatches() throws Exception {
+        Product otherProduct = new Product();
+        otherProduct.setCode("TEST-002");
+        otherProduct.setName("Bamboo Watch");
+        otherProduct.setCategory("Accessories");
+        otherProduct.setPrice(65.0);
+        otherProduct.setQuantity(5);
+        otherProduct.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        productRepository.saveAndFlush(otherProduct);
+        
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("search", "bamboo"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(1)))
+            .andExpect(jsonPath("$.content[0].code", is("TEST-002")));
+        
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("search", "introuvable"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(0)));
+    }
+    
+    @Test
+    void getAllProducts_SummaryView_ShouldOmitDescription() throws Exception {
+        testProduct.setDescription("Description longue du produit");
+        productRepository.save(testProduct);
+        
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("view", "summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].code", is("TEST-001")))
+            .andExpect(jsonPath("$.content[0].price", is(99.99)))
+            .andExpect(jsonPath("$.content[0].inventoryStatus", is("INSTOCK")))
+            .andExpect(jsonPath("$.content[0].description").doesNotExist())
+            .andExpect(jsonPath("$.content[0].category").doesNotExist());
+        
+        mockMvc.perform(get("/api/products").param("view", "summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].code", is("TEST-001")))
+            .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+    
+    @Test
+    void getAllProducts_WithPagination_ShouldNotLoadEntities() throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("category", "Electronics"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].code", is("TEST-001")));
+        
+        // Les lignes sont construites directement dans le DTO : aucune entité produit n'est chargée
+        assertEquals(0, statistics.getEntityStatistics(Product.class.getName()).getLoadCount());
+    }
+    
+    @Test
+    void getAllProducts_WithoutPagination_NdjsonAccept_ShouldStreamOneProductPerLine() throws Exception {
+        Product otherProduct = new Product();
+        otherProduct.setCode("TEST-002");
+        otherProduct.setName("Bamboo Watch");
+        otherProduct.setCategory("Accessories");
+        otherProduct.setPrice(65.0);
+        otherProduct.setQuantity(5);
+        otherProduct.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        productRepository.save(otherProduct);
+        
+        String body = mockMvc.perform(get("/api/products")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("TEST-001", objectMapper.readTree(lines[0]).get("code").asText());
+        assertEquals("TEST-002", objectMapper.readTree(lines[1]).get("code").asText());
+    }
+    
+    @Test
+    void getAllProducts_WithoutPagination_Repeated_ShouldServeExportFromMemory() throws Exception {
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        
+        String first = mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        statistics.clear();
+        
+        // Export sous la limite de taille : rendu une fois, puis resservi sans lecture en base
+        mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, first.getBytes(StandardCharsets.UTF_8).length))
+            .andExpect(content().string(first));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void seekProducts_ShouldWalkAllPagesWithCursor() throws Exception {
+        for (int i = 2; i <= 5; i++) {
+            Product product = new Product();
+            product.setCode("TEST-00" + i);
+            product.setName("Test Product");
+            product.setCategory("Electronics");
+            product.setPrice(10.0 * i);
+            product.setQuantity(5);
+            product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+            productRepository.save(product);
+        }
+        
+        // Noms identiques : l'id départage les lignes et aucune n'est répétée ni sautée
+        List<String> codes = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/products/seek").param("size", "2").param("sortBy", "name");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("content").forEach(product -> codes.add(product.get("code").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        
+        assertEquals(List.of("TEST-001", "TEST-002", "TEST-003", "TEST-004", "TEST-005"), codes);
+    }
+    
+    @Test
+    void seekProducts_WithTotalAndDescendingPrice_ShouldReturnFirstPage() throws Exception {
+        mockMvc.perform(get("/api/products/seek")
+                .param("size", "1")
+                .param("sortBy", "price")
+                .param("sortDir", "DESC")
+                .param("withTotal", "true")
+                .param("view", "summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].code", is("TEST-001")))
+            .andExpect(jsonPath("$.content[0].description").doesNotExist())
+            .andExpect(jsonPath("$.totalElements", is(1)))
+            .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+    
+    @Test
+    void seekProducts_InvalidCursor_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/products/seek").param("cursor", "invalide"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status", is(400)));
+    }
+    
+    @Test
+    void getAllProducts_WithPagination_MatchingEtag_ShouldReturn304() throws Exception {
+        String etag = mockMvc.perform(get("/api/products").param("page", "0").param("size", "10"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "no-cache"))
+            .andReturn().getResponse().getHeader("ETag");
+        
+        mockMvc.perform(get("/api/products").param("page", "0").param("size", "10")
+                .header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+    
+    @Test
+    void getAllProducts_AfterUpdate_ShouldChangeEtagAndBody() throws Exception {
+        String etag = mockMvc.perform(get("/api/products").param("page", "0").param("size", "10"))
+            .andExpect(jsonPath("$.content[0].name", is("Test Product")))
+            .andReturn().getResponse().getHeader("ETag");
+        
+        ProductRequest request = new ProductRequest();
+        request.setCode("TEST-001");
+        request.setName("Renamed Product");
+        request.setCategory("Electronics");
+        request.setPrice(99.99);
+        request.setQuantity(10);
+        request.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        mockMvc.perform(patch("/api/products/{id}", testProduct.getId())
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk());
+        // La transaction du test englobe la requête PATCH : forcer l'écriture qu'aurait faite son commit
+        entityManager.flush();
+        
+        mockMvc.perform(get("/api/products").param("page", "0").param("size", "10")
+                .header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(etag)))
+            .andExpect(jsonPath("$.content[0].name", is("Renamed Product")));
+    }
+    
+    @Test
+    void getAllProducts_WithoutPagination_MatchingEtag_ShouldReturn304PerFormat() throws Exception {
+        String etag = mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Vary", containsString("Accept")))
+            .andReturn().getResponse().getHeader("ETag");
+        
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag)
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isOk());
+    }
+    
+    @Test
+    void getProductById_MatchingEtag_ShouldReturn304() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/{id}", testProduct.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", startsWith("\"p" + testProduct.getId() + "-")))
+            .andReturn().getResponse().getHeader("ETag");
+        
+        mockMvc.perform(get("/api/products/{id}", testProduct.getId()).header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+    }
 }
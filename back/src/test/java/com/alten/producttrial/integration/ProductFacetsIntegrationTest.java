@@ -0,0 +1,122 @@
+package com.alten.producttrial.integration;
+
+import com.alten.producttrial.dto.ProductRequest;
+import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import com.alten.producttrial.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * L'agrégat des facettes n'intègre que les écritures validées : ces tests ne sont pas transactionnels
+ * et suppriment eux-mêmes les produits qu'ils créent.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductFacetsIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final List<Long> productIds = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        productIds.add(create("FACET-001", "Facet Lamp", 30.0, 4.5, Product.InventoryStatus.INSTOCK).getId());
+        productIds.add(create("FACET-002", "Facet Chair", 120.0, null, Product.InventoryStatus.LOWSTOCK).getId());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productIds.stream().filter(productRepository::existsById).forEach(productService::deleteProduct);
+    }
+    
+    @Test
+    void getFacets_WithCategory_ShouldCountFromMemory() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        mockMvc.perform(get("/api/products/facets").param("category", "facets"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total", is(2)))
+            .andExpect(jsonPath("$.categories.Facets", is(2)))
+            .andExpect(jsonPath("$.inventoryStatuses.INSTOCK", is(1)))
+            .andExpect(jsonPath("$.inventoryStatuses.LOWSTOCK", is(1)))
+            .andExpect(jsonPath("$.inventoryStatuses.OUTOFSTOCK", is(0)))
+            .andExpect(jsonPath("$.priceRanges[*].count", contains(0, 1, 0, 1, 0)))
+            .andExpect(jsonPath("$.ratings[*].count", contains(0, 0, 0, 0, 1)));
+        
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void getFacets_WithSearch_ShouldCountMatchingProducts() throws Exception {
+        mockMvc.perform(get("/api/products/facets").param("category", "Facets").param("search", "lamp"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total", is(1)))
+            .andExpect(jsonPath("$.inventoryStatuses.INSTOCK", is(1)));
+        
+        // Plusieurs termes : les identifiants correspondants sont lus en base
+        mockMvc.perform(get("/api/products/facets").param("category", "Facets").param("search", "facet chair"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total", is(1)))
+            .andExpect(jsonPath("$.inventoryStatuses.LOWSTOCK", is(1)));
+    }
+    
+    @Test
+    void getFacets_AfterUpdateAndDelete_ShouldReflectWrites() throws Exception {
+        ProductRequest request = request("FACET-002", "Facet Chair", 120.0, null, Product.InventoryStatus.OUTOFSTOCK);
+        productService.updateProduct(productIds.get(1), request);
+        productService.deleteProduct(productIds.get(0));
+        
+        mockMvc.perform(get("/api/products/facets").param("category", "Facets"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total", is(1)))
+            .andExpect(jsonPath("$.inventoryStatuses.LOWSTOCK", is(0)))
+            .andExpect(jsonPath("$.inventoryStatuses.OUTOFSTOCK", is(1)));
+    }
+    
+    private ProductResponse create(String code, String name, Double price, Double rating, Product.InventoryStatus status) {
+        return productService.createProduct(request(code, name, price, rating, status));
+    }
+    
+    private ProductRequest request(String code, String name, Double price, Double rating, Product.InventoryStatus status) {
+        ProductRequest request = new ProductRequest();
+        request.setCode(code);
+        request.setName(name);
+        request.setCategory("Facets");
+        request.setPrice(price);
+        request.setRating(rating);
+        request.setQuantity(1);
+        request.setInventoryStatus(status);
+        return request;
+    }
+}
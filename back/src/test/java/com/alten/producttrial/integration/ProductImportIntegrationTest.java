@@ -0,0 +1,227 @@
+package com.alten.producttrial.integration;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.model.User;
+import com.alten.producttrial.repository.ProductRepository;
+import com.alten.producttrial.repository.UserRepository;
+import com.alten.producttrial.security.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * L'import écrit chaque lot dans sa propre transaction : ces tests ne sont pas transactionnels
+ * et suppriment eux-mêmes les produits importés.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportIntegrationTest {
+    
+    private static final String CSV_HEADER = "code,name,description,category,price,quantity,inventoryStatus,rating\n";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    private Long adminId;
+    private String adminToken;
+    
+    @BeforeEach
+    void setUp() {
+        User admin = new User();
+        admin.setUsername("import-admin");
+        admin.setFirstname("Admin");
+        admin.setEmail("admin@admin.com");
+        admin.setPassword("admin123");
+        adminId = userRepository.save(admin).getId();
+        adminToken = jwtUtil.generateToken(admin.getEmail());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll(productRepository.findAll().stream()
+            .filter(product -> product.getCode().startsWith("IMP-"))
+            .collect(Collectors.toList()));
+        userRepository.deleteById(adminId);
+    }
+    
+    @Test
+    void importProducts_Csv_ShouldCreateValidRowsAndReportInvalidOnes() throws Exception {
+        String csv = CSV_HEADER
+            + "IMP-001,Lampe,\"Lampe de bureau, LED\",Home,19.9,5,INSTOCK,4.5\n"
+            + "IMP-002,,Sans nom,Home,10,1,INSTOCK,\n"
+            + "IMP-003,Tapis,,Home,abc,1,INSTOCK,\n"
+            + "IMP-004,Chaise,,Home,49,3,LOWSTOCK,\n";
+        
+        mockMvc.perform(post("/api/products/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalRows", is(4)))
+            .andExpect(jsonPath("$.created", is(2)))
+            .andExpect(jsonPath("$.updated", is(0)))
+            .andExpect(jsonPath("$.rejected", is(2)))
+            .andExpect(jsonPath("$.errors[0].row", is(2)))
+            .andExpect(jsonPath("$.errors[0].message", containsString("name")))
+            .andExpect(jsonPath("$.errors[1].row", is(3)));
+        
+        Product lamp = productRepository.findByCode("IMP-001").orElseThrow();
+        assertEquals("Lampe de bureau, LED", lamp.getDescription());
+        assertTrue(productRepository.findByCode("IMP-004").isPresent());
+    }
+    
+    @Test
+    void importProducts_Ndjson_ShouldUpsertByCode() throws Exception {
+        String ndjson = "{\"code\":\"IMP-010\",\"name\":\"Sac\",\"category\":\"Bags\",\"price\":30,\"quantity\":2,\"inventoryStatus\":\"INSTOCK\"}\n";
+        mockMvc.perform(post("/api/products/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson))
+            .andExpect(jsonPath("$.created", is(1)));
+        
+        String update = "{\"code\":\"IMP-010\",\"name\":\"Sac à dos\",\"category\":\"Bags\",\"price\":35,\"quantity\":4,\"inventoryStatus\":\"LOWSTOCK\"}\n"
+            + "{\"code\":\"IMP-011\",\"name\":\"Valise\",\"category\":\"Bags\",\"price\":90,\"quantity\":1,\"inventoryStatus\":\"INSTOCK\"}\n";
+        mockMvc.perform(post("/api/products/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(update))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created", is(1)))
+            .andExpect(jsonPath("$.updated", is(1)))
+            .andExpect(jsonPath("$.rejected", is(0)));
+        
+        Product bag = productRepository.findByCode("IMP-010").orElseThrow();
+        assertEquals("Sac à dos", bag.getName());
+        assertEquals(Product.InventoryStatus.LOWSTOCK, bag.getInventoryStatus());
+    }
+    
+    @Test
+    void importProducts_ManyRows_ShouldWriteAllBatches() throws Exception {
+        String csv = CSV_HEADER + IntStream.rangeClosed(1, 1200)
+            .mapToObj(i -> String.format("IMP-B%04d,Produit %d,,Bulk,%d.5,1,INSTOCK,", i, i, i))
+            .collect(Collectors.joining("\n"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        mockMvc.perform(post("/api/products/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created", is(1200)));
+        // Un INSERT préparé par lot et un appel de séquence par bloc de 50, au lieu d'un INSERT par ligne
+        assertTrue(statistics.getPrepareStatementCount() < 100,
+            "Requêtes préparées : " + statistics.getPrepareStatementCount());
+        
+        List<Product> imported = productRepository.findByCategory("Bulk");
+        assertEquals(1200, imported.size());
+        assertEquals(1200, imported.stream().map(Product::getId).distinct().count());
+    }
+    
+    @Test
+    void importProducts_BatchFailingAtFlush_ShouldRejectItAndWriteOtherBatches() throws Exception {
+        String csv = CSV_HEADER
+            + "IMP-030,Crayon,,Office,1,10,INSTOCK,\n"
+            + "IMP-031,Gomme,,Office,1,10,INSTOCK,\n"
+            + "IMP-032,Refus,,Office,1,10,INSTOCK,\n"
+            + "IMP-033,Regle,,Office,1,10,INSTOCK,\n"
+            + "IMP-034,Agrafeuse,,Office,1,10,INSTOCK,\n";
+        int batchSize = appProperties.getBulkImport().getBatchSize();
+        appProperties.getBulkImport().setBatchSize(2);
+        // Contrainte que la validation des lignes ignore : seul le flush du deuxième lot échoue
+        jdbcTemplate.execute("ALTER TABLE products ADD CONSTRAINT ck_products_import_test CHECK (name <> 'Refus')");
+        try {
+            mockMvc.perform(post("/api/products/import")
+                    .header("Authorization", "Bearer " + adminToken)
+                    .contentType("text/csv")
+                    .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows", is(5)))
+                .andExpect(jsonPath("$.created", is(3)))
+                .andExpect(jsonPath("$.rejected", is(2)))
+                .andExpect(jsonPath("$.errors[0].row", is(4)))
+                .andExpect(jsonPath("$.errors[0].message", containsString("could not be written")));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE products DROP CONSTRAINT ck_products_import_test");
+            appProperties.getBulkImport().setBatchSize(batchSize);
+        }
+        
+        assertTrue(productRepository.findByCode("IMP-031").isPresent());
+        assertTrue(productRepository.findByCode("IMP-033").isEmpty());
+        assertTrue(productRepository.findByCode("IMP-034").isPresent());
+    }
+    
+    @Test
+    void importProducts_ImageTooLong_ShouldRejectRow() throws Exception {
+        String ndjson = "{\"code\":\"IMP-040\",\"name\":\"Cadre\",\"image\":\"" + "x".repeat(256)
+            + "\",\"category\":\"Home\",\"price\":12,\"quantity\":1,\"inventoryStatus\":\"INSTOCK\"}\n";
+        
+        mockMvc.perform(post("/api/products/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created", is(0)))
+            .andExpect(jsonPath("$.rejected", is(1)))
+            .andExpect(jsonPath("$.errors[0].message", containsString("image")));
+    }
+    
+    @Test
+    void importProducts_AsRegularUser_ShouldReturn403() throws Exception {
+        User user = new User();
+        user.setUsername("import-user");
+        user.setFirstname("User");
+        user.setEmail("import-user@example.com");
+        user.setPassword("password123");
+        Long userId = userRepository.save(user).getId();
+        try {
+            mockMvc.perform(post("/api/products/import")
+                    .header("Authorization", "Bearer " + jwtUtil.generateToken(user.getEmail()))
+                    .contentType("text/csv")
+                    .content(CSV_HEADER + "IMP-020,Stylo,,Office,2,10,INSTOCK,\n"))
+                .andExpect(status().isForbidden());
+        } finally {
+            userRepository.deleteById(userId);
+        }
+        assertTrue(productRepository.findByCode("IMP-020").isEmpty());
+    }
+}
@@ -0,0 +1,178 @@
+package com.alten.producttrial.integration;
+
+import com.alten.producttrial.dto.CursorPage;
+import com.alten.producttrial.dto.ProductFilter;
+import com.alten.producttrial.dto.ProductRequest;
+import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.dto.ProductSummary;
+import com.alten.producttrial.model.Product;
+import com.alten.producttrial.repository.ProductRepository;
+import com.alten.producttrial.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * L'instantané du catalogue n'intègre que les écritures validées : ces tests ne sont pas transactionnels
+ * et suppriment eux-mêmes les produits qu'ils créent.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSnapshotIntegrationTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final List<Long> productIds = new ArrayList<>();
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        productIds.add(create("SNAP-001", "Snapshot Lamp", 30.0, 4.5).getId());
+        productIds.add(create("SNAP-002", "Snapshot Chair", 120.0, null).getId());
+        productIds.add(create("SNAP-003", "Snapshot Desk", 80.0, 3.0).getId());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productIds.stream().filter(productRepository::existsById).forEach(productService::deleteProduct);
+    }
+    
+    @Test
+    void getAllProducts_FilteredAndSorted_ShouldNotQueryDatabase() {
+        Page<ProductResponse> page = productService.getAllProducts(
+            PageRequest.of(0, 2, Sort.by("price").descending()), filter("snapshot", null));
+        
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("SNAP-002", "SNAP-003"), page.getContent().stream().map(ProductResponse::getCode).toList());
+        assertEquals("Snapshot", page.getContent().get(0).getCategory());
+        assertNotNull(page.getContent().get(0).getCreatedAt());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void getProductSummaries_WithSearch_ShouldMatchLikeSemantics() {
+        Page<ProductSummary> page = productService.getProductSummaries(
+            PageRequest.of(0, 10, Sort.by("name")), filter("Snapshot", "CHAIR"));
+        
+        assertEquals(1, page.getTotalElements());
+        assertEquals("SNAP-002", page.getContent().get(0).getCode());
+        assertNull(page.getContent().get(0).getRating());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void seekProducts_ShouldWalkPagesFromSnapshot() {
+        CursorPage<ProductSummary> first = productService.seekProductSummaries(2, "price", "ASC", filter("Snapshot", null), null, true);
+        CursorPage<ProductSummary> second = productService.seekProductSummaries(2, "price", "ASC", filter("Snapshot", null),
+            first.getNextCursor(), false);
+        
+        assertEquals(List.of("SNAP-001", "SNAP-003"), first.getContent().stream().map(ProductSummary::getCode).toList());
+        assertEquals(3L, first.getTotalElements());
+        assertEquals(List.of("SNAP-002"), second.getContent().stream().map(ProductSummary::getCode).toList());
+        assertNull(second.getNextCursor());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void getAllProducts_WithPriceAndRatingBounds_ShouldNotQueryDatabase() {
+        ProductFilter prices = new ProductFilter("Snapshot", null, 50.0, 120.0, null, null);
+        ProductFilter rated = new ProductFilter("Snapshot", null, null, null, 3.0, Product.InventoryStatus.INSTOCK);
+        
+        Page<ProductSummary> byPrice = productService.getProductSummaries(PageRequest.of(0, 10, Sort.by("name")), prices);
+        Page<ProductSummary> byRating = productService.getProductSummaries(PageRequest.of(0, 10, Sort.by("price")), rated);
+        
+        assertEquals(List.of("SNAP-002", "SNAP-003"), byPrice.getContent().stream().map(ProductSummary::getCode).toList());
+        // Bornes incluses, produit sans note exclu
+        assertEquals(List.of("SNAP-001", "SNAP-003"), byRating.getContent().stream().map(ProductSummary::getCode).toList());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void seekProducts_WithPriceBoundsSortedByPrice_ShouldReadSlice() {
+        ProductFilter prices = new ProductFilter("Snapshot", null, 30.0, 80.0, null, null);
+        
+        CursorPage<ProductSummary> first = productService.seekProductSummaries(1, "price", "DESC", prices, null, true);
+        CursorPage<ProductSummary> second = productService.seekProductSummaries(1, "price", "DESC", prices,
+            first.getNextCursor(), false);
+        
+        assertEquals("SNAP-003", first.getContent().get(0).getCode());
+        assertEquals(2L, first.getTotalElements());
+        assertEquals("SNAP-001", second.getContent().get(0).getCode());
+        assertNull(second.getNextCursor());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void getAllProducts_WithEmptyBounds_ShouldReturnEmptyPage() {
+        Page<ProductSummary> page = productService.getProductSummaries(PageRequest.of(0, 10, Sort.by("name")),
+            new ProductFilter("Snapshot", null, 200.0, 100.0, null, Product.InventoryStatus.OUTOFSTOCK));
+        
+        assertEquals(0, page.getTotalElements());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void getAllProducts_AfterUpdateAndDelete_ShouldReflectCommittedWrites() {
+        ProductRequest request = request("SNAP-003", "Snapshot Desk", 10.0, 3.0);
+        productService.updateProduct(productIds.get(2), request);
+        productService.deleteProduct(productIds.get(0));
+        
+        Page<ProductResponse> page = productService.getAllProducts(
+            PageRequest.of(0, 10, Sort.by("price")), filter("Snapshot", null));
+        
+        assertEquals(List.of("SNAP-003", "SNAP-002"), page.getContent().stream().map(ProductResponse::getCode).toList());
+        assertEquals(10.0, page.getContent().get(0).getPrice());
+    }
+    
+    @Test
+    void getAllProducts_WithLikeWildcard_ShouldFallBackToDatabase() {
+        Page<ProductResponse> page = productService.getAllProducts(
+            PageRequest.of(0, 10, Sort.by("name")), filter("Snapshot", "snapshot_l"));
+        
+        assertEquals(1, page.getTotalElements());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+    }
+    
+    private static ProductFilter filter(String category, String search) {
+        return new ProductFilter(category, search, null, null, null, null);
+    }
+    
+    private ProductResponse create(String code, String name, Double price, Double rating) {
+        return productService.createProduct(request(code, name, price, rating));
+    }
+    
+    private ProductRequest request(String code, String name, Double price, Double rating) {
+        ProductRequest request = new ProductRequest();
+        request.setCode(code);
+        request.setName(name);
+        request.setCategory("Snapshot");
+        request.setPrice(price);
+        request.setRating(rating);
+        request.setQuantity(1);
+        request.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+        return request;
+    }
+}
@@ -0,0 +1,73 @@
+package com.alten.producttrial.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Vérifie, par EXPLAIN, que les requêtes fréquentes utilisent les index déclarés dans les migrations
+ * (db/migration). Les requêtes reprennent les prédicats et tris générés par Hibernate pour les méthodes
+ * de repository correspondantes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanIntegrationTest {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void cartItems_FindByUserIdAndProductId_ShouldUseUserProductIndex() {
+        String plan = explain("select ci.id, p.id from cart_items ci join products p on p.id = ci.product_id "
+                + "where ci.user_id = 1 and ci.product_id = 2");
+        
+        assertThat(plan, containsString("UK_CART_ITEMS_USER_PRODUCT"));
+        assertThat(plan, containsString("AND PRODUCT_ID = CAST(2 AS BIGINT)"));
+    }
+    
+    @Test
+    void cartItems_FindByUserId_ShouldUseUserProductIndexPrefix() {
+        String plan = explain("select ci.id, p.id from cart_items ci join products p on p.id = ci.product_id "
+                + "where ci.user_id = 1");
+        
+        assertThat(plan, containsString("UK_CART_ITEMS_USER_PRODUCT"));
+        assertThat(plan, not(containsString("tableScan")));
+    }
+    
+    @Test
+    void wishlistItems_FindByUserIdAndProductId_ShouldUseUserProductIndex() {
+        String plan = explain("select wi.id from wishlist_items wi where wi.user_id = 1 and wi.product_id = 2");
+        
+        assertThat(plan, containsString("IDX_WISHLIST_ITEMS_USER_PRODUCT"));
+    }
+    
+    @Test
+    void wishlistItems_FindByUserId_ShouldUseUserProductIndexPrefix() {
+        String plan = explain("select wi.id, p.id from wishlist_items wi join products p on p.id = wi.product_id "
+                + "where wi.user_id = 1");
+        
+        assertThat(plan, containsString("IDX_WISHLIST_ITEMS_USER_PRODUCT"));
+        assertThat(plan, not(containsString("tableScan")));
+    }
+    
+    @Test
+    void products_CategoryFilterSortedByName_ShouldUseCategoryIndex() {
+        String plan = explain("select p.id, p.code, p.name from products p where p.category_id = 1 "
+                + "order by p.name offset 0 rows fetch first 10 rows only");
+        
+        // H2 ajoute son propre index à la clé étrangère fk_products_category et peut le préférer à
+        // idx_products_category_name : seul compte l'accès par clé. Il trie encore les lignes retenues ;
+        // PostgreSQL lit directement dans l'ordre (category_id, name)
+        assertThat(plan, matchesPattern("(?s).*/\\* PUBLIC\\.\\w+: CATEGORY_ID = 1 \\*/.*"));
+        assertThat(plan, not(containsString("tableScan")));
+    }
+    
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,49 @@
+package com.alten.producttrial.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VirtualThreadModeIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+    
+    @Autowired
+    @Qualifier("requestLimitFilter")
+    private FilterRegistrationBean<?> requestLimitFilter;
+    
+    @Test
+    void asyncExecutor_ShouldRunOnVirtualThreads() throws Exception {
+        Future<Boolean> virtual = applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual());
+        
+        assertTrue(virtual.get());
+    }
+    
+    @Test
+    void requestLimitFilter_ShouldBeRegisteredAndLetRequestsThrough() throws Exception {
+        assertNotNull(requestLimitFilter.getFilter());
+        
+        mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk());
+    }
+}
@@ -1,6 +1,7 @@
 package com.alten.producttrial.integration;
 
 import com.alten.producttrial.dto.WishlistItemRequest;
+import com.alten.producttrial.dto.WishlistItemResponse;
 import com.alten.producttrial.model.Product;
 import com.alten.producttrial.model.User;
 import com.alten.producttrial.model.WishlistItem;
@@ -8,7 +9,12 @@ import com.alten.producttrial.repository.ProductRepository;
 import com.alten.producttrial.repository.UserRepository;
 import com.alten.producttrial.repository.WishlistItemRepository;
 import com.alten.producttrial.security.JwtUtil;
+import com.alten.producttrial.service.WishlistService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +26,11 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -51,6 +61,12 @@ class WishlistControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private WishlistService wishlistService;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
     private User testUser;
     private Product testProduct;
     private WishlistItem testWishlistItem;
@@ -188,4 +204,50 @@ class WishlistControllerIntegrationTest {
                 .header("Authorization", "Bearer " + authToken))
             .andExpect(status().isNotFound());
     }
+    
+    @Test
+    void getWishlistItems_ManyItems_ShouldLoadInAtMostTwoQueries() {
+        for (int i = 2; i <= 6; i++) {
+            Product product = new Product();
+            product.setCode("PROD-00" + i);
+            product.setName("Product " + i);
+            product.setCategory("Electronics");
+            product.setPrice(10.0 * i);
+            product.setQuantity(10);
+            product.setInventoryStatus(Product.InventoryStatus.INSTOCK);
+            product = productRepository.save(product);
+            
+            WishlistItem item = new WishlistItem();
+            item.setUser(testUser);
+            item.setProduct(product);
+            wishlistItemRepository.save(item);
+        }
+        // Repartir d'un contexte de persistance vide pour mesurer les requêtes réellement émises
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        List<WishlistItemResponse> items = wishlistService.getWishlistItems(testUser.getId());
+        
+        assertEquals(6, items.size());
+        assertTrue(items.stream().allMatch(response -> response.getProduct().getName() != null));
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Requêtes émises : " + statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void findByUserIdAndProductId_ShouldFetchProductInSameQuery() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        WishlistItem item = wishlistItemRepository.findByUserIdAndProductId(testUser.getId(), testProduct.getId())
+            .orElseThrow();
+        
+        assertTrue(Hibernate.isInitialized(item.getProduct()));
+        assertEquals("Test Product", item.getProduct().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
 }
@@ -2,6 +2,7 @@ package com.alten.producttrial.mapper;
 
 import com.alten.producttrial.dto.ProductRequest;
 import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.dto.ProductSummary;
 import com.alten.producttrial.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -109,6 +110,31 @@ class ProductMapperTest {
         assertNull(result);
     }
     
+    @Test
+    void toSummary_ValidProduct_ShouldMapListFields() {
+        // When
+        ProductSummary result = productMapper.toSummary(product);
+        
+        // Then
+        assertNotNull(result);
+        assertEquals(1L, result.getId());
+        assertEquals("TEST-001", result.getCode());
+        assertEquals("Test Product", result.getName());
+        assertEquals(99.99, result.getPrice());
+        assertEquals("test.jpg", result.getImage());
+        assertEquals(Product.InventoryStatus.INSTOCK, result.getInventoryStatus());
+        assertEquals(4.5, result.getRating());
+    }
+    
+    @Test
+    void toSummary_NullProduct_ShouldReturnNull() {
+        // When
+        ProductSummary result = productMapper.toSummary(null);
+        
+        // Then
+        assertNull(result);
+    }
+    
     @Test
     void updateEntityFromRequest_ValidRequest_ShouldUpdateEntity() {
         // When
@@ -0,0 +1,139 @@
+package com.alten.producttrial.model;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le débit d'insertion des deux stratégies d'identifiants, en rejouant sur H2 les instructions
+ * qu'Hibernate émet pour chacune : un INSERT par ligne avec lecture de la clé générée (IDENTITY,
+ * comportement historique) et un appel de séquence par bloc suivi d'INSERT envoyés en lots JDBC
+ * (SEQUENCE + pooled-lo, allocationSize et hibernate.jdbc.batch_size à 50).
+ *
+ * Le mode "tcp" passe par un serveur H2 local : chaque instruction y coûte un aller-retour réseau,
+ * comme avec une base distante, ce que le mode "mem" (base dans le processus) ne montre pas.
+ *
+ * Lancement : mvn test-compile puis exécuter {@link #main(String[])} avec le classpath de test.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGenerationBenchmark {
+    
+    private static final int ROWS = 500;
+    private static final int BLOCK_SIZE = 50;
+    
+    @Param({"mem", "tcp"})
+    private String mode;
+    
+    private Server server;
+    private Connection connection;
+    
+    @Setup
+    public void setUp() throws SQLException {
+        if ("tcp".equals(mode)) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            connection = DriverManager.getConnection(
+                    "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:idbench;DB_CLOSE_DELAY=-1");
+        } else {
+            connection = DriverManager.getConnection("jdbc:h2:mem:idbench;DB_CLOSE_DELAY=-1");
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table identity_rows (id bigint generated by default as identity primary key, "
+                    + "code varchar(100) not null, price double not null)");
+            statement.execute("create table sequence_rows (id bigint primary key, "
+                    + "code varchar(100) not null, price double not null)");
+            statement.execute("create sequence sequence_rows_seq start with 1 increment by " + BLOCK_SIZE);
+        }
+    }
+    
+    // Tables vidées entre itérations : la croissance des index ne fausse pas la comparaison
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("truncate table identity_rows");
+            statement.execute("truncate table sequence_rows");
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+    
+    /**
+     * Opération mesurée : insertion de {@value #ROWS} lignes.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long insert_identity() throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into identity_rows (code, price) values (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setString(1, "P-" + i);
+                insert.setDouble(2, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        return lastId;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long insert_pooledSequenceBatched() throws SQLException {
+        long nextId = 0;
+        long blockEnd = 0;
+        try (PreparedStatement sequence = connection.prepareStatement("select next value for sequence_rows_seq");
+             PreparedStatement insert = connection.prepareStatement(
+                     "insert into sequence_rows (id, code, price) values (?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                if (nextId == blockEnd) {
+                    try (ResultSet value = sequence.executeQuery()) {
+                        value.next();
+                        nextId = value.getLong(1);
+                        blockEnd = nextId + BLOCK_SIZE;
+                    }
+                }
+                insert.setLong(1, nextId++);
+                insert.setString(2, "P-" + i);
+                insert.setDouble(3, i);
+                insert.addBatch();
+                if ((i + 1) % BLOCK_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return nextId;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdGenerationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
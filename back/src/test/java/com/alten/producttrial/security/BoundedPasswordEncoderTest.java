@@ -0,0 +1,90 @@
+package com.alten.producttrial.security;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+    
+    private SimpleMeterRegistry registry;
+    private AppProperties.PasswordHashing settings;
+    private BoundedPasswordEncoder encoder;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        settings = new AppProperties.PasswordHashing();
+        settings.setStrength(4);
+        settings.setThreads(1);
+        settings.setQueueCapacity(1);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+    
+    @Test
+    void encodeAndMatches_ShouldDelegateOffTheCallerThreadAndRecordMetrics() {
+        // Given
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(settings.getStrength()), settings, registry);
+        
+        // When
+        String hash = encoder.encode("password123");
+        
+        // Then
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, registry.get("password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get("password.hashing").tag("operation", "matches").timer().count());
+        assertEquals(3, registry.get("password.hashing.queue.wait").timer().count());
+    }
+    
+    @Test
+    void encode_QueueFull_ShouldRejectImmediately() throws Exception {
+        // Given : l'unique thread est occupé et la file contient déjà une demande
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+        encoder = new BoundedPasswordEncoder(delegate, settings, registry);
+        List<Thread> callers = new ArrayList<>();
+        callers.add(Thread.ofVirtual().start(() -> encoder.encode("first")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.add(Thread.ofVirtual().start(() -> encoder.encode("queued")));
+        while (registry.get("password.hashing.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        
+        // When / Then
+        assertThrows(ServiceOverloadedException.class, () -> encoder.encode("rejected"));
+        assertEquals(1.0, registry.get("password.hashing.rejected").counter().count());
+        
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        verify(delegate, times(2)).encode(any());
+    }
+}
@@ -0,0 +1,126 @@
+package com.alten.producttrial.security;
+
+import com.alten.producttrial.config.AppProperties;
+import com.alten.producttrial.model.User;
+import com.alten.producttrial.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    private CustomUserDetailsService userDetailsService;
+    private User user;
+    
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new CustomUserDetailsService(userRepository, new AppProperties());
+        
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setFirstname("Test");
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+    }
+    
+    @Test
+    void loadUserByUsername_RepeatedLookup_ShouldQueryDatabaseOnce() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        
+        // When
+        UserDetails first = userDetailsService.loadUserByUsername("test@example.com");
+        UserDetails second = userDetailsService.loadUserByUsername("test@example.com");
+        
+        // Then
+        assertSame(first, second);
+        assertEquals("encodedPassword", second.getPassword());
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+    }
+    
+    @Test
+    void loadUserByUsername_UnknownEmail_ShouldCacheAbsence() {
+        // Given
+        when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
+        
+        // When
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("unknown@example.com"));
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("unknown@example.com"));
+        
+        // Then
+        verify(userRepository, times(1)).findByEmail("unknown@example.com");
+    }
+    
+    @Test
+    void onUserChanged_ShouldEvictPositiveAndNegativeEntries() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user));
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("test@example.com"));
+        
+        // When : création du compte
+        userDetailsService.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, user));
+        
+        // Then
+        assertEquals(1L, ((UserPrincipal) userDetailsService.loadUserByUsername("test@example.com")).getId());
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+    
+    @Test
+    void onUserChanged_EmailChanged_ShouldEvictEntryOfPreviousEmail() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user))
+                .thenReturn(Optional.empty());
+        userDetailsService.loadUserByUsername("test@example.com");
+        
+        // When
+        User renamed = new User();
+        renamed.setId(1L);
+        renamed.setEmail("renamed@example.com");
+        userDetailsService.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, renamed));
+        
+        // Then
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("test@example.com"));
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+    
+    @Test
+    void onUserChanged_ShouldKeepOtherUsersCached() {
+        // Given
+        User other = new User();
+        other.setId(2L);
+        other.setEmail("other@example.com");
+        other.setPassword("encodedPassword");
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail("other@example.com")).thenReturn(Optional.of(other));
+        userDetailsService.loadUserByUsername("test@example.com");
+        UserDetails cachedOther = userDetailsService.loadUserByUsername("other@example.com");
+        
+        // When
+        userDetailsService.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, user));
+        
+        // Then
+        assertSame(cachedOther, userDetailsService.loadUserByUsername("other@example.com"));
+        userDetailsService.loadUserByUsername("test@example.com");
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+        verify(userRepository, times(1)).findByEmail("other@example.com");
+    }
+}
@@ -0,0 +1,82 @@
+package com.alten.producttrial.security;
+
+import com.alten.producttrial.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare la vérification d'un token avec une clé et un parser reconstruits à chaque appel
+ * (comportement historique) et avec ceux pré-construits par {@link JwtUtil}.
+ *
+ * Lancement : mvn test-compile puis exécuter {@link #main(String[])} avec le classpath de test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+    
+    private static final String SECRET = "benchmarkSecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLong";
+    
+    private JwtUtil jwtUtil;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(86400000L);
+        jwtUtil = new JwtUtil(properties);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("bench@example.com");
+    }
+    
+    @Benchmark
+    public Claims parse_rebuildKeyAndParser() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+    
+    @Benchmark
+    public Claims parse_prebuiltParser() {
+        return jwtUtil.parseClaims(token);
+    }
+    
+    @Benchmark
+    public String sign_rebuildKey() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.builder()
+                .subject("bench@example.com")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 86400000L))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+    
+    @Benchmark
+    public String sign_prebuiltKey() {
+        return jwtUtil.generateToken("bench@example.com");
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
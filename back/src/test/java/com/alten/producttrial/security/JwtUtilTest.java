@@ -1,5 +1,7 @@
 package com.alten.producttrial.security;
 
+import com.alten.producttrial.config.JwtProperties;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +12,8 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,4 +105,90 @@ class JwtUtilTest {
         // Then
         assertNotEquals(token1, token2);
     }
+    
+    @Test
+    void validateToken_SameTokenTwice_ShouldVerifySignatureOnce() {
+        // Given
+        String token = jwtUtil.generateToken("cache@example.com");
+        CacheStats before = jwtUtil.getCacheStats();
+        
+        // When
+        jwtUtil.extractEmail(token);
+        jwtUtil.validateToken(token, "cache@example.com");
+        
+        // Then
+        CacheStats delta = jwtUtil.getCacheStats().minus(before);
+        assertEquals(1, delta.missCount());
+        assertEquals(2, delta.hitCount());
+    }
+    
+    @Test
+    void extractEmail_TamperedToken_ShouldThrowAndNotBeCached() {
+        // Given
+        String token = jwtUtil.generateToken(testEmail);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        
+        // When & Then
+        assertThrows(SignatureException.class, () -> jwtUtil.extractEmail(tampered));
+        assertThrows(SignatureException.class, () -> jwtUtil.extractEmail(tampered));
+    }
+    
+    @Test
+    void extractEmail_TokenSignedWithPreviousKey_ShouldBeAcceptedDuringRotation() {
+        // Given
+        JwtUtil previous = standaloneJwtUtil("k1", "previousSecretKeyForJWTTokenGenerationThatShouldBeAtLeast256Bits", Map.of());
+        JwtUtil current = standaloneJwtUtil("k2", "currentSecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLong",
+                Map.of("k1", "previousSecretKeyForJWTTokenGenerationThatShouldBeAtLeast256Bits"));
+        String oldToken = previous.generateToken(testEmail);
+        
+        // When & Then
+        assertEquals(testEmail, current.extractEmail(oldToken));
+        assertEquals(testEmail, current.extractEmail(current.generateToken(testEmail)));
+    }
+    
+    @Test
+    void extractEmail_TokenSignedWithUnknownKey_ShouldBeRejected() {
+        // Given
+        JwtUtil retired = standaloneJwtUtil("k0", "retiredSecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLong", Map.of());
+        String token = retired.generateToken(testEmail);
+        
+        // When & Then
+        assertThrows(io.jsonwebtoken.security.InvalidKeyException.class, () -> jwtUtil.extractEmail(token));
+    }
+    
+    private JwtUtil standaloneJwtUtil(String keyId, String secret, Map<String, String> previousKeys) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(secret);
+        properties.setExpiration(86400000L);
+        properties.setKeyId(keyId);
+        properties.setPreviousKeys(previousKeys);
+        JwtUtil util = new JwtUtil(properties);
+        util.init();
+        return util;
+    }
+    
+    @Test
+    void extractPrincipal_TokenWithUserClaims_ShouldRebuildPrincipal() {
+        // Given
+        UserPrincipal principal = new UserPrincipal(42L, testEmail, "hash", List.of(UserPrincipal.ROLE_USER));
+        String token = jwtUtil.generateToken(principal);
+        
+        // When
+        UserPrincipal extracted = jwtUtil.extractPrincipal(token);
+        
+        // Then
+        assertEquals(42L, extracted.getId());
+        assertEquals(testEmail, extracted.getUsername());
+        assertEquals(List.of(UserPrincipal.ROLE_USER), extracted.getRoles());
+        assertNull(extracted.getPassword());
+    }
+    
+    @Test
+    void extractPrincipal_LegacyToken_ShouldReturnNull() {
+        // Given
+        String token = jwtUtil.generateToken(testEmail);
+        
+        // When & Then
+        assertNull(jwtUtil.extractPrincipal(token));
+    }
 }
@@ -11,6 +11,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
@@ -123,4 +125,33 @@ class SecurityUtilsTest {
         // Then
         assertFalse(result);
     }
+    
+    @Test
+    void getCurrentUserId_UserPrincipal_ShouldReturnId() {
+        // Given
+        UserPrincipal principal = new UserPrincipal(7L, "user@example.com", null, List.of(UserPrincipal.ROLE_USER));
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getPrincipal()).thenReturn(principal);
+        
+        // When
+        Long result = securityUtils.getCurrentUserId();
+        
+        // Then
+        assertEquals(7L, result);
+    }
+    
+    @Test
+    void getCurrentUserId_AnonymousUser_ShouldReturnNull() {
+        // Given
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getPrincipal()).thenReturn("anonymousUser");
+        
+        // When
+        Long result = securityUtils.getCurrentUserId();
+        
+        // Then
+        assertNull(result);
+    }
 }
@@ -1,6 +1,7 @@
 package com.alten.producttrial.service;
 
 import com.alten.producttrial.dto.CartItemResponse;
+import com.alten.producttrial.dto.CartOperation;
 import com.alten.producttrial.exception.ResourceNotFoundException;
 import com.alten.producttrial.exception.UnauthorizedAccessException;
 import com.alten.producttrial.mapper.CartItemMapper;
@@ -16,8 +17,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +47,9 @@ class CartServiceTest {
     @Mock
     private CartItemMapper cartItemMapper;
     
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
     @InjectMocks
     private CartService cartService;
     
@@ -73,116 +83,207 @@ class CartServiceTest {
     @Test
     void getCartItems_ValidUser_ShouldReturnCartItems() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        when(cartItemRepository.findByUser(user)).thenReturn(Arrays.asList(cartItem));
+        when(cartItemRepository.findByUserId(1L)).thenReturn(Arrays.asList(cartItem));
         when(cartItemMapper.toResponse(cartItem)).thenReturn(cartItemResponse);
         
         // When
-        List<CartItemResponse> result = cartService.getCartItems("user@example.com");
+        List<CartItemResponse> result = cartService.getCartItems(1L);
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(userRepository).findByEmail("user@example.com");
-        verify(cartItemRepository).findByUser(user);
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(cartItemRepository).findByUserId(1L);
         verify(cartItemMapper).toResponse(cartItem);
     }
     
     @Test
-    void getCartItems_NonExistingUser_ShouldThrowException() {
-        // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
-        
-        // When & Then
-        assertThrows(ResourceNotFoundException.class, () -> {
-            cartService.getCartItems("user@example.com");
-        });
-        verify(userRepository).findByEmail("user@example.com");
-        verify(cartItemRepository, never()).findByUser(any());
-    }
-    
-    @Test
-    void addToCart_NewItem_ShouldCreateCartItem() {
+    void addToCart_ValidRequest_ShouldUpsertInOneStatement() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByUserAndProduct(user, product)).thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
+        when(cartItemRepository.upsertQuantity(1L, 1L, 2)).thenReturn(1);
+        when(cartItemRepository.findByUserIdAndProductId(1L, 1L)).thenReturn(Optional.of(cartItem));
         when(cartItemMapper.toResponse(cartItem)).thenReturn(cartItemResponse);
         
         // When
-        CartItemResponse result = cartService.addToCart("user@example.com", 1L, 2);
+        CartItemResponse result = cartService.addToCart(1L, 1L, 2);
         
         // Then
         assertNotNull(result);
-        verify(userRepository).findByEmail("user@example.com");
+        verify(userRepository, never()).findByEmail(anyString());
         verify(productRepository).findById(1L);
-        verify(cartItemRepository).findByUserAndProduct(user, product);
-        verify(cartItemRepository).save(any(CartItem.class));
+        verify(cartItemRepository).upsertQuantity(1L, 1L, 2);
+        verify(cartItemRepository, never()).save(any());
     }
     
     @Test
-    void addToCart_ExistingItem_ShouldUpdateQuantity() {
+    void addToCart_ConcurrentFirstInsert_ShouldRetryUpsert() {
         // Given
-        CartItem existingItem = new CartItem();
-        existingItem.setId(1L);
-        existingItem.setQuantity(1);
-        existingItem.setUser(user);
-        existingItem.setProduct(product);
-        
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByUserAndProduct(user, product)).thenReturn(Optional.of(existingItem));
-        when(cartItemRepository.save(existingItem)).thenReturn(existingItem);
-        when(cartItemMapper.toResponse(existingItem)).thenReturn(cartItemResponse);
+        when(cartItemRepository.upsertQuantity(1L, 1L, 2))
+                .thenThrow(violation("PUBLIC.UK_CART_ITEMS_USER_PRODUCT_INDEX_4"))
+                .thenReturn(1);
+        when(cartItemRepository.findByUserIdAndProductId(1L, 1L)).thenReturn(Optional.of(cartItem));
+        when(cartItemMapper.toResponse(cartItem)).thenReturn(cartItemResponse);
         
         // When
-        CartItemResponse result = cartService.addToCart("user@example.com", 1L, 2);
+        CartItemResponse result = cartService.addToCart(1L, 1L, 2);
         
         // Then
         assertNotNull(result);
-        assertEquals(3, existingItem.getQuantity()); // 1 + 2
-        verify(cartItemRepository).save(existingItem);
+        verify(cartItemRepository, times(2)).upsertQuantity(1L, 1L, 2);
     }
     
     @Test
-    void addToCart_NonExistingUser_ShouldThrowException() {
+    void addToCart_OtherConstraintViolation_ShouldNotRetry() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        DataIntegrityViolationException violation = violation("FK_CART_ITEMS_USER");
+        when(cartItemRepository.upsertQuantity(1L, 1L, 2)).thenThrow(violation);
         
         // When & Then
-        assertThrows(ResourceNotFoundException.class, () -> {
-            cartService.addToCart("user@example.com", 1L, 2);
-        });
-        verify(userRepository).findByEmail("user@example.com");
-        verify(productRepository, never()).findById(any());
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> cartService.addToCart(1L, 1L, 2)));
+        verify(cartItemRepository, times(1)).upsertQuantity(1L, 1L, 2);
+    }
+    
+    @Test
+    void addToCart_ProductDeletedBeforeUpsert_ShouldThrowException() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(cartItemRepository.upsertQuantity(1L, 1L, 2)).thenThrow(violation("FK_CART_ITEMS_PRODUCT"));
+        
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> cartService.addToCart(1L, 1L, 2));
+        verify(cartItemRepository, times(1)).upsertQuantity(1L, 1L, 2);
     }
     
     @Test
     void addToCart_NonExistingProduct_ShouldThrowException() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
         
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
-            cartService.addToCart("user@example.com", 1L, 2);
+            cartService.addToCart(1L, 1L, 2);
         });
-        verify(userRepository).findByEmail("user@example.com");
+        verify(userRepository, never()).findByEmail(anyString());
         verify(productRepository).findById(1L);
-        verify(cartItemRepository, never()).save(any());
+        verify(cartItemRepository, never()).upsertQuantity(anyLong(), anyLong(), anyInt());
+    }
+    
+    @Test
+    void applyBatch_ShouldApplyOperationsInOrderAndDeleteRemovedItems() {
+        // Given
+        Product otherProduct = new Product();
+        otherProduct.setId(2L);
+        CartItem otherItem = new CartItem(2L, user, otherProduct, 5);
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product, otherProduct));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+        when(cartItemRepository.findByUserIdForUpdate(1L)).thenReturn(List.of(cartItem, otherItem));
+        when(cartItemMapper.toResponse(cartItem)).thenReturn(cartItemResponse);
+        
+        // When
+        List<CartItemResponse> result = cartService.applyBatch(1L, List.of(
+                new CartOperation(CartOperation.Type.ADD, 1L, 3),
+                new CartOperation(CartOperation.Type.REMOVE, 2L, null)));
+        
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(5, cartItem.getQuantity()); // 2 + 3
+        verify(cartItemRepository).deleteAll(argThat(removed -> List.of(otherItem).equals(new ArrayList<>((Collection<?>) removed))));
+        verify(cartItemRepository).saveAllAndFlush(List.of());
+    }
+    
+    @Test
+    void applyBatch_RemoveThenAdd_ShouldReuseExistingItem() {
+        // Given
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+        when(cartItemRepository.findByUserIdForUpdate(1L)).thenReturn(List.of(cartItem));
+        when(cartItemMapper.toResponse(cartItem)).thenReturn(cartItemResponse);
+        
+        // When
+        List<CartItemResponse> result = cartService.applyBatch(1L, List.of(
+                new CartOperation(CartOperation.Type.REMOVE, 1L, null),
+                new CartOperation(CartOperation.Type.ADD, 1L, 4)));
+        
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(4, cartItem.getQuantity());
+        verify(cartItemRepository).deleteAll(argThat(removed -> !removed.iterator().hasNext()));
+        verify(cartItemRepository).saveAllAndFlush(List.of());
+    }
+    
+    @Test
+    void applyBatch_UpdateMissingItem_ShouldThrowException() {
+        // Given
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+        when(cartItemRepository.findByUserIdForUpdate(1L)).thenReturn(List.of());
+        List<CartOperation> operations = List.of(new CartOperation(CartOperation.Type.UPDATE, 1L, 3));
+        
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> cartService.applyBatch(1L, operations));
+        verify(cartItemRepository, never()).saveAllAndFlush(any());
+    }
+    
+    @Test
+    void applyBatch_RemoveMissingItem_ShouldBeIgnored() {
+        // Given
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+        when(cartItemRepository.findByUserIdForUpdate(1L)).thenReturn(List.of());
+        
+        // When
+        List<CartItemResponse> result = cartService.applyBatch(1L, List.of(
+                new CartOperation(CartOperation.Type.REMOVE, 1L, null)));
+        
+        // Then
+        assertTrue(result.isEmpty());
+        verify(cartItemRepository).deleteAll(argThat(removed -> !removed.iterator().hasNext()));
+    }
+    
+    @Test
+    void applyBatch_ConcurrentFirstInsert_ShouldReplayBatch() {
+        // Given
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+        when(cartItemRepository.findByUserIdForUpdate(1L)).thenReturn(List.of()).thenReturn(List.of(cartItem));
+        when(cartItemRepository.saveAllAndFlush(anyList()))
+                .thenThrow(violation("PUBLIC.UK_CART_ITEMS_USER_PRODUCT_INDEX_4"))
+                .thenReturn(List.of());
+        when(cartItemMapper.toResponse(cartItem)).thenReturn(cartItemResponse);
+        
+        // When
+        List<CartItemResponse> result = cartService.applyBatch(1L, List.of(
+                new CartOperation(CartOperation.Type.ADD, 1L, 3)));
+        
+        // Then : le lot rejoué incrémente la ligne créée par l'autre transaction
+        assertEquals(List.of(cartItemResponse), result);
+        assertEquals(5, cartItem.getQuantity());
+        verify(cartItemRepository, times(2)).findByUserIdForUpdate(1L);
+    }
+    
+    @Test
+    void applyBatch_UnknownUser_ShouldThrowException() {
+        // Given
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+        List<CartOperation> operations = List.of(new CartOperation(CartOperation.Type.ADD, 1L, 3));
+        
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> cartService.applyBatch(1L, operations));
+        verify(cartItemRepository, never()).findByUserIdForUpdate(anyLong());
     }
     
     @Test
     void updateCartItemQuantity_ValidRequest_ShouldUpdateQuantity() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
         when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
         when(cartItemMapper.toResponse(cartItem)).thenReturn(cartItemResponse);
         
         // When
-        CartItemResponse result = cartService.updateCartItemQuantity("user@example.com", 1L, 5);
+        CartItemResponse result = cartService.updateCartItemQuantity(1L, 1L, 5);
         
         // Then
         assertNotNull(result);
@@ -197,12 +298,11 @@ class CartServiceTest {
         otherUser.setId(2L);
         cartItem.setUser(otherUser);
         
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
         
         // When & Then
         assertThrows(UnauthorizedAccessException.class, () -> {
-            cartService.updateCartItemQuantity("user@example.com", 1L, 5);
+            cartService.updateCartItemQuantity(1L, 1L, 5);
         });
         verify(cartItemRepository, never()).save(any());
     }
@@ -210,12 +310,11 @@ class CartServiceTest {
     @Test
     void removeFromCart_ValidRequest_ShouldDeleteCartItem() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
         doNothing().when(cartItemRepository).delete(cartItem);
         
         // When
-        cartService.removeFromCart("user@example.com", 1L);
+        cartService.removeFromCart(1L, 1L);
         
         // Then
         verify(cartItemRepository).delete(cartItem);
@@ -228,12 +327,11 @@ class CartServiceTest {
         otherUser.setId(2L);
         cartItem.setUser(otherUser);
         
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
         
         // When & Then
         assertThrows(UnauthorizedAccessException.class, () -> {
-            cartService.removeFromCart("user@example.com", 1L);
+            cartService.removeFromCart(1L, 1L);
         });
         verify(cartItemRepository, never()).delete(any());
     }
@@ -241,13 +339,17 @@ class CartServiceTest {
     @Test
     void clearCart_ValidUser_ShouldDeleteAllItems() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        doNothing().when(cartItemRepository).deleteByUser(user);
+        doNothing().when(cartItemRepository).deleteByUserId(1L);
         
         // When
-        cartService.clearCart("user@example.com");
+        cartService.clearCart(1L);
         
         // Then
-        verify(cartItemRepository).deleteByUser(user);
+        verify(cartItemRepository).deleteByUserId(1L);
+    }
+    
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("constraint violation",
+                new ConstraintViolationException("constraint violation", new SQLException(), constraint));
     }
 }
@@ -1,12 +1,22 @@
 package com.alten.producttrial.service;
 
+import com.alten.producttrial.catalog.CategoryDictionary;
+import com.alten.producttrial.catalog.ProductFacetIndex;
+import com.alten.producttrial.catalog.ProductSearchIndex;
+import com.alten.producttrial.catalog.ProductSnapshot;
+import com.alten.producttrial.dto.CursorPage;
+import com.alten.producttrial.dto.ProductFacets;
+import com.alten.producttrial.dto.ProductFilter;
 import com.alten.producttrial.dto.ProductRequest;
 import com.alten.producttrial.dto.ProductResponse;
+import com.alten.producttrial.dto.ProductSummary;
 import com.alten.producttrial.exception.DuplicateResourceException;
+import com.alten.producttrial.exception.InvalidRequestException;
 import com.alten.producttrial.exception.ResourceNotFoundException;
 import com.alten.producttrial.mapper.ProductMapper;
 import com.alten.producttrial.model.Product;
 import com.alten.producttrial.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,13 +27,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +51,24 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
     
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    
+    @Mock
+    private CategoryDictionary categoryDictionary;
+    
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+    
+    @Mock
+    private ProductSnapshot productSnapshot;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private EntityManager entityManager;
+    
     @InjectMocks
     private ProductService productService;
     
@@ -76,37 +109,99 @@ class ProductServiceTest {
     void getAllProducts_WithPagination_ShouldReturnPage() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Product> products = Arrays.asList(product);
-        Page<Product> productPage = new PageImpl<>(products, pageable, 1);
+        Page<ProductResponse> productPage = new PageImpl<>(Arrays.asList(productResponse), pageable, 1);
         
-        when(productRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(productPage);
-        when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+        when(productRepository.findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable)))
+            .thenReturn(productPage);
         
         // When
-        Page<ProductResponse> result = productService.getAllProducts(pageable, null, null);
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter(null, null));
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository).findAll(any(Specification.class), eq(pageable));
-        verify(productMapper, times(1)).toResponse(any(Product.class));
+        verify(productRepository).findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable));
+        verify(productMapper, never()).toResponse(any(Product.class));
     }
     
     @Test
-    void getAllProducts_WithoutPagination_ShouldReturnList() {
+    void getAllProducts_AnsweredBySnapshot_ShouldNotQueryDatabase() {
         // Given
-        List<Product> products = Arrays.asList(product);
-        when(productRepository.findAll()).thenReturn(products);
-        when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("name"));
+        Page<ProductResponse> productPage = new PageImpl<>(List.of(productResponse), pageable, 1);
+        when(productSnapshot.findPage(ProductResponse.class, pageable, filter("Electronics", null)))
+            .thenReturn(Optional.of(productPage));
         
         // When
-        List<ProductResponse> result = productService.getAllProducts();
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter("Electronics", null));
         
         // Then
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(productRepository).findAll();
-        verify(productMapper, times(1)).toResponse(any(Product.class));
+        assertSame(productPage, result);
+        verifyNoInteractions(productRepository, transactionManager);
+    }
+    
+    @Test
+    void seekProducts_AnsweredBySnapshot_ShouldBuildCursorWithoutDatabase() {
+        // Given
+        ProductResponse other = new ProductResponse();
+        other.setId(2L);
+        other.setName("Zeta");
+        when(productSnapshot.findSeek(ProductResponse.class, filter(null, null), "name", Sort.Direction.ASC, null, null, 2))
+            .thenReturn(Optional.of(List.of(productResponse, other)));
+        when(productSnapshot.count(filter(null, null))).thenReturn(Optional.of(5L));
+        
+        // When
+        CursorPage<ProductResponse> result = productService.seekProducts(1, "name", "ASC", filter(null, null), null, true);
+        
+        // Then
+        assertEquals(List.of(productResponse), result.getContent());
+        assertEquals(5L, result.getTotalElements());
+        assertNotNull(result.getNextCursor());
+        verifyNoInteractions(productRepository, transactionManager);
+    }
+    
+    @Test
+    void exportProducts_ShouldStreamAndDetachEachProduct() {
+        // Given
+        Product other = new Product();
+        other.setId(2L);
+        other.setCode("TEST-002");
+        ProductResponse otherResponse = new ProductResponse();
+        otherResponse.setCode("TEST-002");
+        
+        when(productRepository.streamAllByOrderById()).thenReturn(Stream.of(product, other));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+        when(productMapper.toResponse(other)).thenReturn(otherResponse);
+        List<ProductResponse> written = new ArrayList<>();
+        
+        // When
+        long count = productService.exportProducts(written::add);
+        
+        // Then
+        assertEquals(2, count);
+        assertEquals(List.of(productResponse, otherResponse), written);
+        verify(entityManager).detach(product);
+        verify(entityManager).detach(other);
+        verify(productRepository, never()).findAll();
+    }
+    
+    @Test
+    void getProductSummaries_WithPagination_ShouldSelectSummaryProjection() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductSummary summary = new ProductSummary(1L, "TEST-001", "Test Product", 99.99, null,
+            Product.InventoryStatus.INSTOCK, null);
+        when(categoryDictionary.findMatching("Electronics")).thenReturn(List.of("Electronics"));
+        when(productRepository.findAllAs(eq(ProductSummary.class), any(Specification.class), eq(pageable)))
+            .thenReturn(new PageImpl<>(Arrays.asList(summary), pageable, 1));
+        
+        // When
+        Page<ProductSummary> result = productService.getProductSummaries(pageable, filter("Electronics", null));
+        
+        // Then
+        assertEquals(1, result.getTotalElements());
+        assertEquals("TEST-001", result.getContent().get(0).getCode());
+        verify(productRepository, never()).findAllAs(eq(ProductResponse.class), any(Specification.class), any(Pageable.class));
     }
     
     @Test
@@ -239,57 +334,208 @@ class ProductServiceTest {
     void getAllProducts_WithCategoryFilter_ShouldFilterByCategory() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Product> products = Arrays.asList(product);
-        Page<Product> productPage = new PageImpl<>(products, pageable, 1);
+        Page<ProductResponse> productPage = new PageImpl<>(Arrays.asList(productResponse), pageable, 1);
         
-        when(productRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(productPage);
-        when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+        when(categoryDictionary.findMatching("Electronics")).thenReturn(List.of("Electronics"));
+        when(productRepository.findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable)))
+            .thenReturn(productPage);
         
         // When
-        Page<ProductResponse> result = productService.getAllProducts(pageable, "Electronics", null);
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter("Electronics", null));
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository).findAll(any(Specification.class), eq(pageable));
+        verify(productRepository).findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable));
+    }
+    
+    @Test
+    void getAllProducts_WithUnknownCategory_ShouldNotQueryRepository() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(categoryDictionary.findMatching("inconnue")).thenReturn(List.of());
+        
+        // When
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter("inconnue", null));
+        
+        // Then
+        assertEquals(0, result.getTotalElements());
+        verify(productRepository, never()).findAllAs(any(), any(Specification.class), any(Pageable.class));
+    }
+    
+    @Test
+    void getFacets_WithIndexedSearch_ShouldCountInMemory() {
+        // Given
+        ProductFacets facets = new ProductFacets();
+        long[] matches = {1L, 2L};
+        when(categoryDictionary.findMatching("electronics")).thenReturn(List.of("Electronics"));
+        when(productSearchIndex.findMatches("watch")).thenReturn(matches);
+        when(productFacetIndex.facets(List.of("Electronics"), matches)).thenReturn(facets);
+        
+        // When
+        ProductFacets result = productService.getFacets("electronics", "watch");
+        
+        // Then
+        assertSame(facets, result);
+        verifyNoInteractions(productRepository);
+    }
+    
+    @Test
+    void getFacets_WithSearchNotResolvedByIndex_ShouldReadOnlyIds() {
+        // Given
+        ProductFacets facets = new ProductFacets();
+        when(productSearchIndex.findMatches("black watch")).thenReturn(null);
+        when(productRepository.findIds(any(Specification.class))).thenReturn(List.of(2L));
+        when(productFacetIndex.facets(isNull(), aryEq(new long[]{2L}))).thenReturn(facets);
+        
+        // When
+        ProductFacets result = productService.getFacets(null, "black watch");
+        
+        // Then
+        assertSame(facets, result);
+        verify(productRepository, never()).findAllAs(any(), any(Specification.class), any(Pageable.class));
     }
     
     @Test
     void getAllProducts_WithSearchFilter_ShouldFilterBySearch() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Product> products = Arrays.asList(product);
-        Page<Product> productPage = new PageImpl<>(products, pageable, 1);
+        Page<ProductResponse> productPage = new PageImpl<>(Arrays.asList(productResponse), pageable, 1);
         
-        when(productRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(productPage);
-        when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+        when(productRepository.findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable)))
+            .thenReturn(productPage);
         
         // When
-        Page<ProductResponse> result = productService.getAllProducts(pageable, null, "Test");
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter(null, "Test"));
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository).findAll(any(Specification.class), eq(pageable));
+        verify(productRepository).findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable));
+    }
+    
+    @Test
+    void getAllProducts_WithSearchWithoutCandidates_ShouldNotQueryRepository() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productSearchIndex.findCandidates("inconnu")).thenReturn(new long[0]);
+        
+        // When
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter(null, "inconnu"));
+        
+        // Then
+        assertEquals(0, result.getTotalElements());
+        verify(productRepository, never()).findAllAs(any(), any(Specification.class), any(Pageable.class));
+    }
+    
+    @Test
+    void getAllProducts_WithSearchCandidates_ShouldQueryRepository() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<ProductResponse> productPage = new PageImpl<>(Arrays.asList(productResponse), pageable, 1);
+        
+        when(productSearchIndex.findCandidates("Test")).thenReturn(new long[]{1L});
+        when(productRepository.findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable)))
+            .thenReturn(productPage);
+        
+        // When
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter(null, "Test"));
+        
+        // Then
+        assertEquals(1, result.getTotalElements());
+        verify(productSearchIndex).findCandidates("Test");
+        verify(productRepository).findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable));
     }
     
     @Test
     void getAllProducts_WithCategoryAndSearch_ShouldFilterByBoth() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Product> products = Arrays.asList(product);
-        Page<Product> productPage = new PageImpl<>(products, pageable, 1);
+        Page<ProductResponse> productPage = new PageImpl<>(Arrays.asList(productResponse), pageable, 1);
         
-        when(productRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(productPage);
-        when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+        when(categoryDictionary.findMatching("Electronics")).thenReturn(List.of("Electronics"));
+        when(productRepository.findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable)))
+            .thenReturn(productPage);
         
         // When
-        Page<ProductResponse> result = productService.getAllProducts(pageable, "Electronics", "Test");
+        Page<ProductResponse> result = productService.getAllProducts(pageable, filter("Electronics", "Test"));
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository).findAll(any(Specification.class), eq(pageable));
+        verify(productRepository).findAllAs(eq(ProductResponse.class), any(Specification.class), eq(pageable));
+    }
+    
+    @Test
+    void seekProducts_MoreRowsThanSize_ShouldReturnNextCursorWithoutCount() {
+        // Given
+        ProductResponse second = new ProductResponse();
+        second.setId(2L);
+        second.setName("Zebra");
+        when(productRepository.findSeekAs(eq(ProductResponse.class), any(Specification.class), eq("name"),
+                eq(Sort.Direction.ASC), isNull(), isNull(), eq(2)))
+            .thenReturn(new ArrayList<>(List.of(productResponse, second)));
+        
+        // When
+        CursorPage<ProductResponse> result = productService.seekProducts(1, null, null, filter(null, null), null, false);
+        
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertNotNull(result.getNextCursor());
+        assertNull(result.getTotalElements());
+        verify(productRepository, never()).count(any(Specification.class));
+    }
+    
+    @Test
+    void seekProducts_WithCursor_ShouldResumeAfterLastKey() {
+        // Given
+        when(productRepository.findSeekAs(eq(ProductResponse.class), any(Specification.class), eq("name"),
+                eq(Sort.Direction.ASC), isNull(), isNull(), eq(2)))
+            .thenReturn(new ArrayList<>(List.of(productResponse, new ProductResponse())));
+        String cursor = productService.seekProducts(1, "name", "ASC", filter(null, null), null, false).getNextCursor();
+        when(productRepository.findSeekAs(eq(ProductResponse.class), any(Specification.class), eq("name"),
+                eq(Sort.Direction.ASC), eq("Test Product"), eq(1L), eq(2)))
+            .thenReturn(new ArrayList<>());
+        when(productRepository.count(any(Specification.class))).thenReturn(1L);
+        
+        // When
+        CursorPage<ProductResponse> result = productService.seekProducts(1, "name", "ASC", filter(null, null), cursor, true);
+        
+        // Then
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNextCursor());
+        assertEquals(1L, result.getTotalElements());
+    }
+    
+    @Test
+    void seekProducts_UnsupportedSortField_ShouldThrowException() {
+        // When & Then
+        assertThrows(InvalidRequestException.class, () -> {
+            productService.seekProducts(10, "description", null, filter(null, null), null, false);
+        });
+        verifyNoInteractions(productRepository);
+    }
+    
+    @Test
+    void seekProducts_CursorFromAnotherSort_ShouldThrowException() {
+        // Given
+        when(productRepository.findSeekAs(eq(ProductResponse.class), any(Specification.class), eq("price"),
+                eq(Sort.Direction.DESC), isNull(), isNull(), eq(2)))
+            .thenReturn(new ArrayList<>(List.of(productResponse, new ProductResponse())));
+        String cursor = productService.seekProducts(1, "price", "DESC", filter(null, null), null, false).getNextCursor();
+        
+        // When & Then
+        assertThrows(InvalidRequestException.class, () -> {
+            productService.seekProducts(1, "name", "ASC", filter(null, null), cursor, false);
+        });
+    }
+    
+    @Test
+    void seekProducts_MalformedCursor_ShouldThrowException() {
+        // When & Then
+        assertThrows(InvalidRequestException.class, () -> {
+            productService.seekProducts(10, null, null, filter(null, null), "pas-un-curseur", false);
+        });
     }
     
     @Test
@@ -337,4 +583,8 @@ class ProductServiceTest {
         verify(productRepository, never()).findByCode(anyString()); // Ne devrait pas vérifier si le code est le même
         verify(productRepository).save(product);
     }
+    
+    private static ProductFilter filter(String category, String search) {
+        return new ProductFilter(category, search, null, null, null, null);
+    }
 }
@@ -70,94 +70,65 @@ class WishlistServiceTest {
     @Test
     void getWishlistItems_ValidUser_ShouldReturnWishlistItems() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        when(wishlistItemRepository.findByUser(user)).thenReturn(Arrays.asList(wishlistItem));
+        when(wishlistItemRepository.findByUserId(1L)).thenReturn(Arrays.asList(wishlistItem));
         when(wishlistItemMapper.toResponse(wishlistItem)).thenReturn(wishlistItemResponse);
         
         // When
-        List<WishlistItemResponse> result = wishlistService.getWishlistItems("user@example.com");
+        List<WishlistItemResponse> result = wishlistService.getWishlistItems(1L);
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(userRepository).findByEmail("user@example.com");
-        verify(wishlistItemRepository).findByUser(user);
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(wishlistItemRepository).findByUserId(1L);
         verify(wishlistItemMapper).toResponse(wishlistItem);
     }
     
-    @Test
-    void getWishlistItems_NonExistingUser_ShouldThrowException() {
-        // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
-        
-        // When & Then
-        assertThrows(ResourceNotFoundException.class, () -> {
-            wishlistService.getWishlistItems("user@example.com");
-        });
-        verify(userRepository).findByEmail("user@example.com");
-        verify(wishlistItemRepository, never()).findByUser(any());
-    }
-    
     @Test
     void addToWishlist_NewItem_ShouldCreateWishlistItem() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(wishlistItemRepository.findByUserAndProduct(user, product)).thenReturn(Optional.empty());
+        when(wishlistItemRepository.findByUserIdAndProductId(1L, 1L)).thenReturn(Optional.empty());
         when(wishlistItemRepository.save(any(WishlistItem.class))).thenReturn(wishlistItem);
         when(wishlistItemMapper.toResponse(wishlistItem)).thenReturn(wishlistItemResponse);
         
         // When
-        WishlistItemResponse result = wishlistService.addToWishlist("user@example.com", 1L);
+        WishlistItemResponse result = wishlistService.addToWishlist(1L, 1L);
         
         // Then
         assertNotNull(result);
-        verify(userRepository).findByEmail("user@example.com");
+        verify(userRepository, never()).findByEmail(anyString());
         verify(productRepository).findById(1L);
-        verify(wishlistItemRepository).findByUserAndProduct(user, product);
+        verify(wishlistItemRepository).findByUserIdAndProductId(1L, 1L);
         verify(wishlistItemRepository).save(any(WishlistItem.class));
     }
     
     @Test
     void addToWishlist_ExistingItem_ShouldReturnExistingItem() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(wishlistItemRepository.findByUserAndProduct(user, product)).thenReturn(Optional.of(wishlistItem));
+        when(wishlistItemRepository.findByUserIdAndProductId(1L, 1L)).thenReturn(Optional.of(wishlistItem));
         when(wishlistItemMapper.toResponse(wishlistItem)).thenReturn(wishlistItemResponse);
         
         // When
-        WishlistItemResponse result = wishlistService.addToWishlist("user@example.com", 1L);
+        WishlistItemResponse result = wishlistService.addToWishlist(1L, 1L);
         
         // Then
         assertNotNull(result);
         verify(wishlistItemRepository, never()).save(any());
     }
     
-    @Test
-    void addToWishlist_NonExistingUser_ShouldThrowException() {
-        // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
-        
-        // When & Then
-        assertThrows(ResourceNotFoundException.class, () -> {
-            wishlistService.addToWishlist("user@example.com", 1L);
-        });
-        verify(userRepository).findByEmail("user@example.com");
-        verify(productRepository, never()).findById(any());
-    }
-    
     @Test
     void addToWishlist_NonExistingProduct_ShouldThrowException() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
         
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
-            wishlistService.addToWishlist("user@example.com", 1L);
+            wishlistService.addToWishlist(1L, 1L);
         });
-        verify(userRepository).findByEmail("user@example.com");
+        verify(userRepository, never()).findByEmail(anyString());
         verify(productRepository).findById(1L);
         verify(wishlistItemRepository, never()).save(any());
     }
@@ -165,12 +136,11 @@ class WishlistServiceTest {
     @Test
     void removeFromWishlist_ValidRequest_ShouldDeleteWishlistItem() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(wishlistItemRepository.findById(1L)).thenReturn(Optional.of(wishlistItem));
         doNothing().when(wishlistItemRepository).delete(wishlistItem);
         
         // When
-        wishlistService.removeFromWishlist("user@example.com", 1L);
+        wishlistService.removeFromWishlist(1L, 1L);
         
         // Then
         verify(wishlistItemRepository).delete(wishlistItem);
@@ -183,12 +153,11 @@ class WishlistServiceTest {
         otherUser.setId(2L);
         wishlistItem.setUser(otherUser);
         
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(wishlistItemRepository.findById(1L)).thenReturn(Optional.of(wishlistItem));
         
         // When & Then
         assertThrows(UnauthorizedAccessException.class, () -> {
-            wishlistService.removeFromWishlist("user@example.com", 1L);
+            wishlistService.removeFromWishlist(1L, 1L);
         });
         verify(wishlistItemRepository, never()).delete(any());
     }
@@ -196,12 +165,11 @@ class WishlistServiceTest {
     @Test
     void removeFromWishlist_NonExistingItem_ShouldThrowException() {
         // Given
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(wishlistItemRepository.findById(1L)).thenReturn(Optional.empty());
         
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
-            wishlistService.removeFromWishlist("user@example.com", 1L);
+            wishlistService.removeFromWishlist(1L, 1L);
         });
         verify(wishlistItemRepository, never()).delete(any());
     }